@@ -0,0 +1,66 @@
+package nablarch.tool.benchmark;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.tool.util.CsvUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV出力処理（{@link CsvUtil}）のベンチマーク。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvWriteBenchmark {
+
+    /** 行数 */
+    @Param({"1000", "100000"})
+    private int rows;
+
+    /** 作業ディレクトリ */
+    private File workDir;
+
+    /** 出力先ファイル */
+    private String output;
+
+    /** 出力する行データ */
+    private List<Map<String, String>> data;
+
+    /** 合成データを生成する。 */
+    @Setup(Level.Trial)
+    public void setUp() {
+        workDir = Fixtures.createWorkDir("csv-write-benchmark");
+        output = new File(workDir, "out.csv").getPath();
+        data = Fixtures.createRows(rows);
+    }
+
+    /** 合成データを削除する。 */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(workDir);
+    }
+
+    /** {@link CsvUtil#writeFile(List, String, String, String)}でファイルを出力する。 */
+    @Benchmark
+    public void writeFile() {
+        CsvUtil.writeFile(data, output, "UTF-8", "\r\n");
+    }
+}
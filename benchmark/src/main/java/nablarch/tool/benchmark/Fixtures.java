@@ -0,0 +1,244 @@
+package nablarch.tool.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * ベンチマーク用の合成データを生成するクラス。
+ * <p/>
+ * 生成する表は、0行目をヘッダ行とし、{@link #COLUMNS}列の文字列・数値カラムを持つ。
+ * 同じ引数に対して常に同じ内容を生成する。
+ * <p/>
+ * {@link nablarch.tool.benchmark.extended}パッケージのベンチマークからも使用する。
+ */
+public final class Fixtures {
+
+    /** 表のカラム数 */
+    public static final int COLUMNS = 10;
+
+    /** 表を格納するシート名 */
+    public static final String SHEET_NAME = "data";
+
+    /** 隠蔽コンストラクタ */
+    private Fixtures() {
+    }
+
+    /**
+     * 作業ディレクトリを作成する。
+     *
+     * @param prefix ディレクトリ名の接頭辞
+     * @return 作業ディレクトリ
+     */
+    public static File createWorkDir(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toFile();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 作業ディレクトリを削除する。
+     *
+     * @param dir 作業ディレクトリ
+     */
+    public static void delete(File dir) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * .xls形式のブックを生成する。
+     *
+     * @param dir  出力先ディレクトリ
+     * @param rows データ行数
+     * @return 生成したファイル
+     */
+    public static File createXls(File dir, int rows) {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createInformationProperties();
+        return write(fill(book, rows), new File(dir, "table-" + rows + ".xls"));
+    }
+
+    /**
+     * .xlsx形式のブックを生成する。
+     *
+     * @param dir  出力先ディレクトリ
+     * @param rows データ行数
+     * @return 生成したファイル
+     */
+    public static File createXlsx(File dir, int rows) {
+        return write(fill(new XSSFWorkbook(), rows), new File(dir, "table-" + rows + ".xlsx"));
+    }
+
+    /**
+     * CSV出力用の行データを生成する。
+     *
+     * @param rows 行数
+     * @return 行データ
+     */
+    static List<Map<String, String>> createRows(int rows) {
+        List<Map<String, String>> data = new ArrayList<Map<String, String>>(rows);
+        for (int r = 0; r < rows; r++) {
+            Map<String, String> row = new LinkedHashMap<String, String>();
+            for (int c = 0; c < COLUMNS; c++) {
+                row.put(columnName(c), cellValue(r, c));
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    /**
+     * {@link nablarch.core.util.annotation.Published}を付与したクラスのソースファイルを生成する。
+     *
+     * @param sourceDir ソースディレクトリ
+     * @param pkg       パッケージ名
+     * @param classes   クラス数
+     */
+    static void createPublishedSources(File sourceDir, String pkg, int classes) {
+        File pkgDir = new File(sourceDir, pkg.replace('.', '/'));
+        pkgDir.mkdirs();
+        for (int i = 0; i < classes; i++) {
+            String className = "Published" + i;
+            StringBuilder src = new StringBuilder();
+            src.append("package ").append(pkg).append(";\n\n")
+               .append("import java.util.List;\n")
+               .append("import java.util.Map;\n")
+               .append("import nablarch.core.util.annotation.Published;\n\n")
+               .append("/** benchmark fixture. */\n")
+               .append("@Published\n")
+               .append("public class ").append(className).append(" {\n");
+            for (int m = 0; m < 10; m++) {
+                src.append("    /** field. */\n")
+                   .append("    @Published\n")
+                   .append("    public String field").append(m).append(";\n")
+                   .append("    /** method. @param a a @param b b @return r */\n")
+                   .append(m % 2 == 0 ? "    @Published\n" : "    @Published(tag = \"architect\")\n")
+                   .append("    public <T extends Comparable<T>> List<T> method").append(m)
+                   .append("(Map<String, List<T>> a, int[] b) { return null; }\n");
+            }
+            src.append("}\n");
+            writeText(new File(pkgDir, className + ".java"), src.toString());
+        }
+    }
+
+    /**
+     * シートに表を書き込む。
+     *
+     * @param book ブック
+     * @param rows データ行数
+     * @param <T>  ブックの型
+     * @return 引数で与えられたブック
+     */
+    private static <T extends Workbook> T fill(T book, int rows) {
+        Sheet sheet = book.createSheet(SHEET_NAME);
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < COLUMNS; c++) {
+            header.createCell(c).setCellValue(columnName(c));
+        }
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r + 1);
+            for (int c = 0; c < COLUMNS; c++) {
+                if (c % 3 == 2) {
+                    row.createCell(c).setCellValue(r * 10 + c);
+                } else {
+                    row.createCell(c).setCellValue(cellValue(r, c));
+                }
+            }
+        }
+        return book;
+    }
+
+    /**
+     * カラム名を取得する。
+     *
+     * @param column 列番号
+     * @return カラム名
+     */
+    public static String columnName(int column) {
+        return "COL_" + column;
+    }
+
+    /**
+     * セル値を取得する。
+     * CSVの引用符処理を通るよう、一部のセルにはカンマ・引用符・改行を含める。
+     *
+     * @param row    行番号
+     * @param column 列番号
+     * @return セル値
+     */
+    private static String cellValue(int row, int column) {
+        switch (row % 20) {
+            case 7:
+                return "value,with,comma " + row;
+            case 13:
+                return "value \"quoted\" " + row;
+            case 17:
+                return "multi\nline " + row;
+            default:
+                return "value_" + row + "_" + column;
+        }
+    }
+
+    /**
+     * ブックをファイルに書き出す。
+     *
+     * @param book ブック
+     * @param file 出力先
+     * @return 出力先
+     */
+    private static File write(Workbook book, File file) {
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                book.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return file;
+    }
+
+    /**
+     * テキストファイルを書き出す。
+     *
+     * @param file    出力先
+     * @param content 内容
+     */
+    private static void writeText(File file, String content) {
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+            try {
+                writer.write(content);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
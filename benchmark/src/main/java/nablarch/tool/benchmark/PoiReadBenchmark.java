@@ -0,0 +1,151 @@
+package nablarch.tool.benchmark;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.tool.util.poi.PoiUtil;
+import nablarch.tool.util.poi.RowFinder;
+import nablarch.tool.util.poi.SimpleTableReader;
+import nablarch.tool.util.poi.XlsColumnDefs;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Excel読み込み処理（{@link PoiUtil}・{@link SimpleTableReader}・{@link RowFinder}）のベンチマーク。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoiReadBenchmark {
+
+    /** データ行数 */
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    /** 作業ディレクトリ */
+    private File workDir;
+
+    /** .xls形式のブック */
+    private File xls;
+
+    /** 読み込み済みのシート */
+    private HSSFSheet sheet;
+
+    /** カラム定義 */
+    private XlsColumnDefs defs;
+
+    /** 合成データを生成する。 */
+    @Setup(Level.Trial)
+    public void setUp() {
+        workDir = Fixtures.createWorkDir("poi-read-benchmark");
+        xls = Fixtures.createXls(workDir, rows);
+        sheet = PoiUtil.getHssfWorkbook(xls).getSheet(Fixtures.SHEET_NAME);
+        Map<String, String> pairs = new HashMap<String, String>();
+        for (int c = 0; c < Fixtures.COLUMNS; c++) {
+            pairs.put(String.valueOf(c), Fixtures.columnName(c));
+        }
+        defs = new XlsColumnDefs();
+        defs.setIndexNamePairs(pairs);
+    }
+
+    /** 合成データを削除する。 */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(workDir);
+    }
+
+    /**
+     * キャッシュ済みのブックを取得する。
+     *
+     * @return ブック
+     */
+    @Benchmark
+    public HSSFWorkbook getHssfWorkbookCached() {
+        return PoiUtil.getHssfWorkbook(xls);
+    }
+
+    /**
+     * ブックをファイルから読み込む。
+     * 呼び出しごとにファイルの最終更新日時を変更し、キャッシュからの再読み込みを発生させる。
+     *
+     * @param touch ファイル更新用の状態
+     * @return ブック
+     */
+    @Benchmark
+    public HSSFWorkbook getHssfWorkbookLoad(Touch touch) {
+        return PoiUtil.getHssfWorkbook(touch.file);
+    }
+
+    /**
+     * {@link SimpleTableReader}で表を読み込む。
+     *
+     * @return 読み込み結果
+     */
+    @Benchmark
+    public List<Map<String, String>> simpleTableRead() {
+        return new SimpleTableReader().read(sheet);
+    }
+
+    /**
+     * {@link RowFinder}で全行を取得する。
+     *
+     * @return 読み込み結果
+     */
+    @Benchmark
+    public List<Map<String, String>> rowFinderFindAll() {
+        return new RowFinder(sheet, 1, defs).findAll();
+    }
+
+    /**
+     * 呼び出しごとにブックのファイルを更新する状態。
+     */
+    @State(Scope.Thread)
+    public static class Touch {
+
+        /** 更新対象のファイル */
+        private File file;
+
+        /** 最終更新日時の基準値 */
+        private long baseTime;
+
+        /** 更新回数 */
+        private long count;
+
+        /**
+         * 更新対象のファイルを設定する。
+         *
+         * @param benchmark ベンチマーク本体の状態
+         */
+        @Setup(Level.Trial)
+        public void setUp(PoiReadBenchmark benchmark) {
+            file = benchmark.xls;
+            baseTime = file.lastModified();
+        }
+
+        /** ファイルの最終更新日時を変更する。 */
+        @Setup(Level.Invocation)
+        public void touch() {
+            // ファイルシステムの時刻精度を考慮し、秒単位で変更する。
+            file.setLastModified(baseTime + (++count % 2 + 1) * 1000L);
+        }
+    }
+}
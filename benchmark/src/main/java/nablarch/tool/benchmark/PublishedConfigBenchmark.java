@@ -0,0 +1,91 @@
+package nablarch.tool.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+
+import nablarch.tool.published.doclet.PublishedDoclet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 使用許可API一覧の生成（{@link PublishedDoclet}）のベンチマーク。
+ * <p/>
+ * {@link nablarch.tool.published.doclet.PublishedConfigGenerator#generate}は
+ * javadocの実行環境（{@link jdk.javadoc.doclet.DocletEnvironment}）を必要とするため、
+ * 合成したソースに対してjavadocを実行し、ソース解析を含む処理全体の時間を測定する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PublishedConfigBenchmark {
+
+    /** 合成するソースのパッケージ */
+    private static final String PKG = "nablarch.tool.benchmark.fixture";
+
+    /** 合成するクラス数 */
+    @Param({"50", "500"})
+    private int classes;
+
+    /** 作業ディレクトリ */
+    private File workDir;
+
+    /** javadocの引数 */
+    private String[] args;
+
+    /** 合成したソースを生成する。 */
+    @Setup(Level.Trial)
+    public void setUp() {
+        workDir = Fixtures.createWorkDir("published-benchmark");
+        File sourceDir = new File(workDir, "src");
+        Fixtures.createPublishedSources(sourceDir, PKG, classes);
+        args = new String[] {
+                "-quiet",
+                "-sourcepath", sourceDir.getPath(),
+                "-encoding", "UTF-8",
+                "-protected",
+                "-subpackages", PKG,
+                "-doclet", PublishedDoclet.class.getName(),
+                "-d", new File(workDir, "javadoc").getPath(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-output", new File(workDir, "published.config").getPath()
+        };
+    }
+
+    /** 合成したソースを削除する。 */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(workDir);
+    }
+
+    /**
+     * 使用許可API一覧を生成する。
+     *
+     * @return javadocの終了ステータス
+     */
+    @Benchmark
+    public int generate() {
+        DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+        int status = tool.run(null, null, null, args);
+        if (status != 0) {
+            throw new IllegalStateException("javadoc failed. status=[" + status + "]");
+        }
+        return status;
+    }
+}
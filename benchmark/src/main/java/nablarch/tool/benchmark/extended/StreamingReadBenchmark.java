@@ -0,0 +1,92 @@
+package nablarch.tool.benchmark.extended;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.tool.benchmark.Fixtures;
+import nablarch.tool.util.poi.StreamingTableReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link StreamingTableReader}によるExcel読み込み処理のベンチマーク。
+ * <p/>
+ * {@link nablarch.tool.benchmark.PoiReadBenchmark}と同じ合成データを読み込むため、
+ * 両者の結果を比較できる。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingReadBenchmark {
+
+    /** データ行数 */
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    /** 作業ディレクトリ */
+    private File workDir;
+
+    /** .xls形式のブック */
+    private File xls;
+
+    /** .xlsx形式のブック */
+    private File xlsx;
+
+    /** 合成データを生成する。 */
+    @Setup(Level.Trial)
+    public void setUp() {
+        workDir = Fixtures.createWorkDir("streaming-read-benchmark");
+        xls = Fixtures.createXls(workDir, rows);
+        xlsx = Fixtures.createXlsx(workDir, rows);
+    }
+
+    /** 合成データを削除する。 */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(workDir);
+    }
+
+    /**
+     * .xls形式の表を読み込む。
+     *
+     * @param blackhole 読み込み結果の破棄先
+     */
+    @Benchmark
+    public void readXls(final Blackhole blackhole) {
+        new StreamingTableReader().read(xls, Fixtures.SHEET_NAME, new StreamingTableReader.RowHandler() {
+            public void handle(Map<String, String> row) {
+                blackhole.consume(row);
+            }
+        });
+    }
+
+    /**
+     * .xlsx形式の表を読み込む。
+     *
+     * @param blackhole 読み込み結果の破棄先
+     */
+    @Benchmark
+    public void readXlsx(final Blackhole blackhole) {
+        new StreamingTableReader().read(xlsx, Fixtures.SHEET_NAME, new StreamingTableReader.RowHandler() {
+            public void handle(Map<String, String> row) {
+                blackhole.consume(row);
+            }
+        });
+    }
+}
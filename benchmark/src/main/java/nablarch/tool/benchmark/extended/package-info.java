@@ -0,0 +1,7 @@
+/**
+ * ベースライン版のnablarch-toolboxに存在しないAPIのベンチマークを提供する。<br/>
+ * <p/>
+ * ベースライン版に対して測定する場合は、<code>baseline</code>プロファイルを指定して
+ * 本パッケージをビルド対象から除外する。
+ */
+package nablarch.tool.benchmark.extended;
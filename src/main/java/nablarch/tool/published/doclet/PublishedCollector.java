@@ -4,29 +4,72 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
-import javax.lang.model.type.DeclaredType;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * 公開APIを抽出するクラス。<br/>
+ * <p>
+ * Publishedアノテーションは完全修飾名で判定する。
+ * 同じ単純名を持つ無関係なアノテーションは、Publishedアノテーションとして扱わない。
+ * アノテーションの型要素は実行ごとに一度だけ解決し、以降は同一性で比較する。
+ * </p>
  *
  * @author T.Kawasaki
  */
 class PublishedCollector {
 
+    /** デフォルトのPublishedアノテーションの完全修飾名 */
+    static final String DEFAULT_ANNOTATION_NAME = "nablarch.core.util.annotation.Published";
+
     /** 抽出対象とするタグ */
     private final Set<String> tagsToPublish;
 
+    /** Publishedアノテーションの完全修飾名 */
+    private final String annotationName;
+
+    /** Publishedアノテーションの型要素（解決できない場合はnull） */
+    private final TypeElement annotationType;
+
+    /** Publishedアノテーションのtag属性（解決できない場合はnull） */
+    private final ExecutableElement tagAttribute;
+
+    /** アノテーションごとの判定結果 */
+    private final Map<AnnotationMirror, Boolean> results = new IdentityHashMap<>();
+
     /**
      * コンストラクタ。
      *
      * @param tagsToPublish 抽出対象とするタグ
+     * @param annotationName Publishedアノテーションの完全修飾名
+     * @param elements 要素を操作するためのユーティリティ
      */
-    PublishedCollector(List<String> tagsToPublish) {
+    PublishedCollector(List<String> tagsToPublish, String annotationName, Elements elements) {
         this.tagsToPublish = new HashSet<>(tagsToPublish);
+        this.annotationName = annotationName;
+        this.annotationType = elements.getTypeElement(annotationName);
+        this.tagAttribute = (annotationType == null) ? null : findTagAttribute(annotationType);
+    }
+
+    /**
+     * アノテーションのtag属性を取得する。
+     *
+     * @param annotationType アノテーションの型要素
+     * @return tag属性（存在しない場合はnull）
+     */
+    private static ExecutableElement findTagAttribute(TypeElement annotationType) {
+        for (ExecutableElement method : ElementFilter.methodsIn(annotationType.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals("tag")) {
+                return method;
+            }
+        }
+        return null;
     }
 
     /**
@@ -51,16 +94,38 @@ class PublishedCollector {
      * @return Publishedアノテーションの場合、真
      */
     boolean isPublishedAnnotation(AnnotationMirror annotationMirror) {
-        final DeclaredType annotationType = annotationMirror.getAnnotationType();
-        if (!annotationType.asElement().getSimpleName().contentEquals("Published")) {
-            return false;
+        Boolean result = results.get(annotationMirror);
+        if (result == null) {
+            result = isPublishedType(annotationMirror) && isQualified(annotationMirror);
+            results.put(annotationMirror, result);
         }
+        return result;
+    }
 
-        final Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotationMirror.getElementValues();
+    /**
+     * アノテーションの型がPublishedアノテーションかどうか判定する。
+     *
+     * @param annotationMirror アノテーション
+     * @return Publishedアノテーションの場合、真
+     */
+    private boolean isPublishedType(AnnotationMirror annotationMirror) {
+        Element type = annotationMirror.getAnnotationType().asElement();
+        if (annotationType != null) {
+            return type == annotationType;
+        }
+        // クラスパス上に存在しないアノテーションは、完全修飾名で判定する。
+        return type instanceof TypeElement && ((TypeElement) type).getQualifiedName().contentEquals(annotationName);
+    }
 
+    /**
+     * 出力対象のタグを保持しているか判定する。
+     *
+     * @param annotationMirror Publishedアノテーション
+     * @return 何のタグも指定されていない（デフォルト）か、指定されたタグを保持している場合、真
+     */
+    private boolean isQualified(AnnotationMirror annotationMirror) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotationMirror.getElementValues();
         boolean hasNoTag = values.size() == 0;
-        // 何のタグも指定されていない（デフォルト）か、もしくは、
-        // 指定されたタグを保持しているか
         return hasNoTag || hasQualifiedTag(values);
     }
 
@@ -71,21 +136,29 @@ class PublishedCollector {
      * @return 指定されたタグを保持している場合、真
      */
     boolean hasQualifiedTag(Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues) {
-        // アノテーション内の全を
-        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationValues.entrySet()) {
-            final ExecutableElement key = entry.getKey();
-            if (key.getSimpleName().contentEquals("tag")) {
-                AnnotationValue annotationValue = entry.getValue();
-                @SuppressWarnings("unchecked")
-                List<AnnotationValue> values = (List<AnnotationValue>) annotationValue.getValue();
-                for (AnnotationValue value : values) {
-                    String tag = value.getValue().toString();
-                    if (tagsToPublish.contains(tag)) {
-                        return true;
-                    }
+        AnnotationValue annotationValue = null;
+        if (tagAttribute != null) {
+            annotationValue = annotationValues.get(tagAttribute);
+        } else {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationValues.entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("tag")) {
+                    annotationValue = entry.getValue();
                 }
             }
         }
+        if (annotationValue == null) {
+            return false;
+        }
+        Object value = annotationValue.getValue();
+        if (!(value instanceof List)) {
+            // 要素が1つの場合に、配列の初期化子を省略して指定されたもの
+            return tagsToPublish.contains(value.toString());
+        }
+        for (Object element : (List<?>) value) {
+            if (tagsToPublish.contains(((AnnotationValue) element).getValue().toString())) {
+                return true;
+            }
+        }
         return false;
     }
 }
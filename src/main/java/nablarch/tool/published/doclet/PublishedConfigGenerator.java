@@ -2,7 +2,6 @@ package nablarch.tool.published.doclet;
 
 import jdk.javadoc.doclet.DocletEnvironment;
 import nablarch.core.util.Builder;
-import nablarch.core.util.FileUtil;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
@@ -10,15 +9,21 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 /**
  * Nablarchの提供する「使用不許可APIチェックツール」で利用する設定ファイル（Nablarchで利用可能としているAPIのホワイトリスト）を作成する。
@@ -32,13 +37,20 @@ public class PublishedConfigGenerator {
      */
     private final PublishedCollector collector;
 
+    /**
+     * シグネチャの型をイレイジャに変換するために利用するクラス。
+     */
+    private final Types types;
+
     /**
      * 出力対象とするPublishedCollectorを指定してインスタンスを生成する。
      *
      * @param collector 出力対象とするPublishedアノテーションのタグ。
+     * @param types 型を操作するためのユーティリティ
      */
-    public PublishedConfigGenerator(PublishedCollector collector) {
+    public PublishedConfigGenerator(PublishedCollector collector, Types types) {
         this.collector = collector;
+        this.types = types;
     }
 
     /**
@@ -49,27 +61,102 @@ public class PublishedConfigGenerator {
      * @param path 「使用不許可APIチェックツール」用設定ファイルの出力先パス
      */
     public void generate(DocletEnvironment rootDoc, String path) {
-        BufferedWriter writer = null;
-        try {
-            writer = new BufferedWriter(new FileWriter(path));
-
-            Set<TypeElement> typeElements = ElementFilter.typesIn(rootDoc.getIncludedElements());
-
-            for (TypeElement typeElement : typeElements) {
-                List<String> apis = generateForClassElements(typeElement);
-                if (!apis.isEmpty()) {
-                    writer.write(Builder.join(apis, Builder.LS));
-                    writer.write(Builder.LS);
-                    writer.flush();
-                }
-            }
+        generate(rootDoc, path, false);
+    }
+
+    /**
+     * 「使用不許可APIチェックツール」で利用する設定ファイルを生成する。設定は{@code path} に指定されたファイルに出力される。
+     * <p/>
+     * インデックス形式を指定した場合、パッケージごとの索引を持つ形式（{@link PublishedIndex}）で出力する。
+     *
+     * @param rootDoc プログラム構造情報のルート
+     * @param path 「使用不許可APIチェックツール」用設定ファイルの出力先パス
+     * @param indexed インデックス形式で出力する場合、真
+     */
+    void generate(DocletEnvironment rootDoc, String path, boolean indexed) {
+        Map<String, List<String>> apisByPackage = collect(rootDoc);
+        try (OutputStream out = new FileOutputStream(path)) {
+            write(apisByPackage, out, indexed);
         } catch (IOException e) {
             throw new RuntimeException("Failed to write file. file=[" + path + "]", e);
-        } finally {
-            FileUtil.closeQuietly(writer);
         }
     }
 
+    /**
+     * 全てのクラスについて、公開APIの一覧をパッケージごとに収集する。
+     * <p/>
+     * javacのモデル（{@link javax.lang.model.element.Element}・{@link TypeMirror}）は
+     * シンボルの補完を遅延して行うためスレッドセーフではない。このため、解析は呼び出し元のスレッドで行う。
+     *
+     * @param rootDoc プログラム構造情報のルート
+     * @return パッケージごとの公開APIの一覧
+     */
+    private Map<String, List<String>> collect(DocletEnvironment rootDoc) {
+        Set<TypeElement> typeElements = ElementFilter.typesIn(rootDoc.getIncludedElements());
+        Elements elements = rootDoc.getElementUtils();
+        Map<String, List<String>> result = new TreeMap<>();
+        for (TypeElement typeElement : typeElements) {
+            collect(typeElement, elements, result);
+        }
+        return result;
+    }
+
+    /**
+     * 指定されたクラス（内部クラスを含む）の公開APIの一覧を、パッケージごとに収集する。
+     *
+     * @param typeElement クラスの構造情報
+     * @param elements 要素を操作するためのユーティリティ
+     * @param result 収集結果（キーはパッケージ名）
+     */
+    void collect(TypeElement typeElement, Elements elements, Map<String, List<String>> result) {
+        addApis(typeElement, elements, generateForClassElements(typeElement), result);
+    }
+
+    /**
+     * クラスの公開APIの一覧を、クラスが属するパッケージの一覧に追加する。
+     *
+     * @param typeElement クラスの構造情報
+     * @param elements 要素を操作するためのユーティリティ
+     * @param apis クラスの公開APIの一覧
+     * @param result 収集結果（キーはパッケージ名）
+     */
+    private static void addApis(TypeElement typeElement, Elements elements, List<String> apis,
+                                Map<String, List<String>> result) {
+        if (!apis.isEmpty()) {
+            String packageName = elements.getPackageOf(typeElement).getQualifiedName().toString();
+            result.computeIfAbsent(packageName, k -> new ArrayList<>()).addAll(apis);
+        }
+    }
+
+    /**
+     * パッケージごとの公開APIの一覧を出力する。
+     * <p/>
+     * インデックス形式を指定しない場合、出力内容がクラスの走査順に依存しないよう、ソートしてから1行に1つずつ出力する。
+     * 出力ストリームはクローズしない。
+     *
+     * @param apisByPackage パッケージごとの公開APIの一覧
+     * @param out 出力先
+     * @param indexed インデックス形式で出力する場合、真
+     * @throws IOException 出力に失敗した場合
+     */
+    void write(Map<String, List<String>> apisByPackage, OutputStream out, boolean indexed) throws IOException {
+        if (indexed) {
+            PublishedIndex.write(apisByPackage, out);
+            return;
+        }
+        List<String> apis = new ArrayList<>();
+        for (List<String> packageApis : apisByPackage.values()) {
+            apis.addAll(packageApis);
+        }
+        Collections.sort(apis);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+        for (String api : apis) {
+            writer.write(api);
+            writer.write(Builder.LS);
+        }
+        writer.flush();
+    }
+
     /**
      * 指定されたクラスについて、指定されたタグを持つか、あるいはタグを持たないPublishedアノテーションを付与された
      * クラス・コンストラクタ・メソッド・フィールド（内部クラスを含む）の一覧を返却する。
@@ -87,14 +174,14 @@ public class PublishedConfigGenerator {
             
             for (ExecutableElement constructor : obtainConstructorElement(typeElement)) {
                 if (collector.hasPublishedAnnotation(constructor)) {
-                    result.add(qualifiedClassName + "." + simpleClassName + deleteGenerics(buildMethodArgsSignature(constructor)));
+                    result.add(qualifiedClassName + "." + simpleClassName + buildMethodArgsSignature(constructor));
                 }
             }
 
             for (ExecutableElement method : obtainMethodElement(typeElement)) {
                 if (collector.hasPublishedAnnotation(method)) {
                     Name methodName = method.getSimpleName();
-                    result.add(qualifiedClassName + "." + methodName + deleteGenerics(buildMethodArgsSignature(method)));
+                    result.add(qualifiedClassName + "." + methodName + buildMethodArgsSignature(method));
                 }
             }
 
@@ -149,72 +236,22 @@ public class PublishedConfigGenerator {
 
     /**
      * メソッドやコンストラクタの引数のシグネチャ文字列を生成する。
+     * <p/>
+     * 引数の型はイレイジャに変換して出力する（型変数は上限境界の型、パラメータ化された型は型引数を除いた型となる）。
+     * Genericsを使用している設定ファイルを使用した場合、使用禁止APIチェックツールが誤検出を行うための対処である。
+     *
      * @param element メソッドまたはコンストラクタ要素
      * @return 引数部分のシグネチャ
      */
     private String buildMethodArgsSignature(ExecutableElement element) {
-        String parameters = element.getParameters().stream()
-                .map(VariableElement::asType)
-                .map(TypeMirror::toString)
-                .collect(Collectors.joining(", "));
-        return "(" + parameters + ")";
-    }
-
-    /**
-     * 引数に渡されたシグネチャにGenericsが使用されている場合、Genericsを削除して返却する。</br>
-     * Genericsが使用されていない場合は、修正せずに返却する。</br>
-     * Genericsを使用している設定ファイルを使用した場合、使用禁止APIチェックツールが誤検出を行うための対処である。
-     *
-     * @param signature シグネチャ
-     * @return 引数に渡されたシグネチャからGenericsを削除した文字列
-     */
-    private static String deleteGenerics(String signature) {
-
-        if ("".equals(signature) || "()".equals(signature)) {
-            return signature;
-        }
-
-        int bracketCount = 0;
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < signature.length(); i++) {
-            char ch = signature.charAt(i);
-            switch (ch) {
-                case '<':
-                    bracketCount++;
-                    break;
-                case '>':
-                    bracketCount--;
-                    break;
-                default:
-                    if (bracketCount == 0) {
-                        result.append(ch);
-                    }
+        StringBuilder signature = new StringBuilder("(");
+        List<? extends VariableElement> parameters = element.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                signature.append(", ");
             }
+            signature.append(types.erasure(parameters.get(i).asType()));
         }
-        return genericToObject(result.toString());
-    }
-
-    /**
-     * 型パラメータを抜き出す正規表現
-     */
-    private static final Pattern PARAM_TYPE_PATTERN = Pattern.compile(
-        "([\\(, ])[A-Z][A-Za-z0-9]*");
-
-    /**
-     * 指定されたシグネチャに総称型が使われていた場合、「java.lang.Object」に変換する。
-     *
-     * @param signature シグネチャ
-     * @return 変換後のシグネチャ
-     */
-    private static String genericToObject(String signature) {
-        if ("".equals(signature) || "()".equals(signature)) {
-            return signature;
-        }
-        Matcher matcher = PARAM_TYPE_PATTERN.matcher(signature);
-        while (matcher.find()) {
-            signature = matcher.replaceFirst(matcher.group(1) + "java.lang.Object");
-            matcher = PARAM_TYPE_PATTERN.matcher(signature);
-        }
-        return signature;
+        return signature.append(')').toString();
     }
 }
@@ -28,6 +28,27 @@ import java.util.Set;
  * 以下に例を示す。
  * <pre>-output=openApi.config</pre>
  *
+ * <ul>
+ * <li>-annotation</li>
+ * </ul>
+ * 値には公開APIの判定に使用するPublishedアノテーションの完全修飾名を指定する（任意）。
+ * 指定しない場合は{@code nablarch.core.util.annotation.Published}を使用する。
+ * 以下に例を示す。
+ * <pre>-annotation=com.example.Published</pre>
+ *
+ * <ul>
+ * <li>-format</li>
+ * </ul>
+ * 値には出力形式を指定する（任意）。
+ * {@code plain}（デフォルト）は1行に1つの公開APIを出力する。
+ * {@code indexed}はパッケージごとの索引を持ち、ソート済みで重複のない形式（{@link PublishedIndex}）で出力する。
+ * 以下に例を示す。
+ * <pre>-format=indexed</pre>
+ * <p>
+ * 本ドックレットは標準ドックレットを継承しているため、起動時に標準ドックレットの初期化が行われる。
+ * 設定ファイルの生成のみを行う場合は、より軽量な{@link PublishedWhitelistDoclet}を使用できる。
+ * </p>
+ *
  * @author T.Kawasaki
  */
 public final class PublishedDoclet extends StandardDoclet {
@@ -64,21 +85,38 @@ public final class PublishedDoclet extends StandardDoclet {
 
     @Override
     public boolean run(DocletEnvironment environment) {
-        printOption();
+        return generate(environment, options, reporter);
+    }
+
+    /**
+     * 起動オプションに従い、「使用不許可APIチェックツール」用設定ファイルを生成する。
+     *
+     * @param environment ドックレットの実行環境
+     * @param options 起動オプション
+     * @param reporter メッセージの出力先
+     * @return 生成に成功した場合、真
+     */
+    static boolean generate(DocletEnvironment environment, PublishedOption options, Reporter reporter) {
+        printOption(options, reporter);
         
         if (options.getOutput() == null) {
             throw new IllegalArgumentException("Output file name must be specified with -output option. e.g. -output=openApi.config");
         }
         
-        PublishedCollector publishedSelector = new PublishedCollector(options.getTags());
-        new PublishedConfigGenerator(publishedSelector).generate(environment, options.getOutput());
+        PublishedCollector publishedSelector = new PublishedCollector(options.getTags(), options.getAnnotation(),
+                environment.getElementUtils());
+        new PublishedConfigGenerator(publishedSelector, environment.getTypeUtils())
+                .generate(environment, options.getOutput(), options.isIndexed());
         return true;
     }
 
     /**
      * 起動オプションを表示する。
+     *
+     * @param options 起動オプション
+     * @param reporter メッセージの出力先
      */
-    private void printOption() {
+    private static void printOption(PublishedOption options, Reporter reporter) {
         reporter.print(Diagnostic.Kind.NOTE, "Options:");
         
         if (!options.getTags().isEmpty()) {
@@ -87,5 +125,11 @@ public final class PublishedDoclet extends StandardDoclet {
         if (options.getOutput() != null) {
             reporter.print(Diagnostic.Kind.NOTE, "\t-output=" + options.getOutput());
         }
+        if (!PublishedCollector.DEFAULT_ANNOTATION_NAME.equals(options.getAnnotation())) {
+            reporter.print(Diagnostic.Kind.NOTE, "\t-annotation=" + options.getAnnotation());
+        }
+        if (options.isIndexed()) {
+            reporter.print(Diagnostic.Kind.NOTE, "\t-format=indexed");
+        }
     }
 }
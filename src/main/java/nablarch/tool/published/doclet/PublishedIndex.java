@@ -0,0 +1,292 @@
+package nablarch.tool.published.doclet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * パッケージごとの索引を持つ公開API一覧（インデックス形式のホワイトリスト）。
+ * <p>
+ * インデックス形式のファイルは、ヘッダ部と本体部から構成される。
+ * </p>
+ * <pre>
+ * #nablarch-published-index 1
+ * パッケージ名[TAB]本体部内のオフセット（バイト）[TAB]長さ（バイト）
+ * ...
+ * （空行）
+ * 公開API
+ * ...
+ * </pre>
+ * <p>
+ * 本体部の公開APIは、パッケージごとにUTF-8のバイト列の順でソートされ、重複が除かれている。
+ * 文字コードはUTF-8、改行コードはLFで固定である。
+ * </p>
+ * <p>
+ * {@link #open(File)}で読み込んだ場合、本体部はメモリマップされる。
+ * 公開APIの検索はヘッダ部から該当パッケージの範囲を求め、その範囲を二分探索して行うため、
+ * ファイル全体を解析する必要はない。
+ * </p>
+ */
+public final class PublishedIndex {
+
+    /** インデックス形式のファイルの1行目（フォーマットが変わった場合は、バージョンを上げること） */
+    static final String HEADER = "#nablarch-published-index 1";
+
+    /** 項目の区切り文字 */
+    private static final char SEPARATOR = '\t';
+
+    /** 改行文字 */
+    private static final byte LF = '\n';
+
+    /** 本体部 */
+    private final ByteBuffer body;
+
+    /** パッケージごとの本体部内の範囲（要素0がオフセット、要素1が長さ） */
+    private final Map<String, int[]> ranges;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param body 本体部
+     * @param ranges パッケージごとの本体部内の範囲
+     */
+    private PublishedIndex(ByteBuffer body, Map<String, int[]> ranges) {
+        this.body = body;
+        this.ranges = ranges;
+    }
+
+    /**
+     * インデックス形式のファイルを読み込む。
+     *
+     * @param file インデックス形式のファイル
+     * @return 公開API一覧
+     */
+    public static PublishedIndex open(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("index file is too large. file=[" + file.getAbsolutePath() + "]");
+            }
+            return open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file.getAbsolutePath());
+        } catch (IOException e) {
+            throw new IllegalStateException("IOException occurred. file=[" + file.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * インデックス形式の内容を読み込む。
+     *
+     * @param buffer インデックス形式の内容
+     * @param name 読み込み元の名前（エラーメッセージに使用する）
+     * @return 公開API一覧
+     */
+    static PublishedIndex open(ByteBuffer buffer, String name) {
+        Map<String, int[]> ranges = new LinkedHashMap<>();
+        String header = readLine(buffer);
+        if (!HEADER.equals(header)) {
+            throw new IllegalStateException("invalid index file header. header=[" + header + "] file=[" + name + "]");
+        }
+        for (String line = readLine(buffer); line != null && !line.isEmpty(); line = readLine(buffer)) {
+            String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+            ranges.put(fields[0], new int[] {Integer.parseInt(fields[1]), Integer.parseInt(fields[2])});
+        }
+        return new PublishedIndex(buffer.slice().asReadOnlyBuffer(), Collections.unmodifiableMap(ranges));
+    }
+
+    /**
+     * 公開APIを含むパッケージの一覧を取得する。
+     *
+     * @return パッケージ名の一覧（ソート済み）
+     */
+    public Set<String> getPackages() {
+        return ranges.keySet();
+    }
+
+    /**
+     * 指定されたパッケージの公開API一覧を取得する。
+     *
+     * @param packageName パッケージ名
+     * @return 公開API一覧（ソート済み。パッケージが存在しない場合は空のリスト）
+     */
+    public List<String> getApis(String packageName) {
+        int[] range = ranges.get(packageName);
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        List<String> apis = new ArrayList<>();
+        int end = range[0] + range[1];
+        for (int start = range[0]; start < end; ) {
+            int lineEnd = lineEnd(start);
+            apis.add(decode(start, lineEnd));
+            start = lineEnd + 1;
+        }
+        return apis;
+    }
+
+    /**
+     * 指定された公開APIが含まれているか判定する。
+     *
+     * @param packageName 公開APIが属するパッケージ名
+     * @param api 公開API（クラスの完全修飾名、またはメンバのシグネチャ）
+     * @return 含まれている場合、真
+     */
+    public boolean contains(String packageName, String api) {
+        int[] range = ranges.get(packageName);
+        if (range == null) {
+            return false;
+        }
+        byte[] key = api.getBytes(StandardCharsets.UTF_8);
+        // lowは常に行頭を指す。
+        int low = range[0];
+        int high = range[0] + range[1];
+        while (low < high) {
+            int lineStart = (low + high) >>> 1;
+            while (lineStart > low && body.get(lineStart - 1) != LF) {
+                lineStart--;
+            }
+            int lineEnd = lineEnd(lineStart);
+            int cmp = compare(lineStart, lineEnd, key);
+            if (cmp == 0) {
+                return true;
+            }
+            if (cmp < 0) {
+                low = lineEnd + 1;
+            } else {
+                high = lineStart;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 公開API一覧をインデックス形式で出力する。出力ストリームはクローズしない。
+     *
+     * @param apisByPackage パッケージごとの公開API一覧（重複を含んでいてもよい）
+     * @param out 出力先
+     * @throws IOException 出力に失敗した場合
+     */
+    static void write(Map<String, ? extends Collection<String>> apisByPackage, OutputStream out) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        StringBuilder header = new StringBuilder(HEADER).append((char) LF);
+        for (String packageName : new TreeSet<>(apisByPackage.keySet())) {
+            byte[][] apis = sortedUnique(apisByPackage.get(packageName));
+            if (apis.length == 0) {
+                continue;
+            }
+            int offset = body.size();
+            for (byte[] api : apis) {
+                body.write(api, 0, api.length);
+                body.write(LF);
+            }
+            header.append(packageName).append(SEPARATOR)
+                  .append(offset).append(SEPARATOR)
+                  .append(body.size() - offset).append((char) LF);
+        }
+        header.append((char) LF);
+
+        out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        body.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * 公開API一覧をUTF-8のバイト列に変換し、ソートして重複を除く。
+     *
+     * @param apis 公開API一覧
+     * @return ソート済みで重複のないバイト列の配列
+     */
+    private static byte[][] sortedUnique(Collection<String> apis) {
+        byte[][] encoded = new byte[apis.size()][];
+        int i = 0;
+        for (String api : apis) {
+            encoded[i++] = api.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(encoded, Arrays::compareUnsigned);
+        int size = 0;
+        for (byte[] api : encoded) {
+            if (size == 0 || !Arrays.equals(encoded[size - 1], api)) {
+                encoded[size++] = api;
+            }
+        }
+        return Arrays.copyOf(encoded, size);
+    }
+
+    /**
+     * 指定された位置から始まる行の終端（改行文字の位置）を取得する。
+     *
+     * @param start 行頭の位置
+     * @return 改行文字の位置
+     */
+    private int lineEnd(int start) {
+        int position = start;
+        while (body.get(position) != LF) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * 本体部の行とキーをUTF-8のバイト列として比較する。
+     *
+     * @param start 行頭の位置
+     * @param end 行の終端の位置
+     * @param key キー
+     * @return 行がキーより小さい場合は負の値、等しい場合は0、大きい場合は正の値
+     */
+    private int compare(int start, int end, byte[] key) {
+        int length = Math.min(end - start, key.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = Byte.toUnsignedInt(body.get(start + i)) - Byte.toUnsignedInt(key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return (end - start) - key.length;
+    }
+
+    /**
+     * 本体部の指定された範囲を文字列に変換する。
+     *
+     * @param start 開始位置
+     * @param end 終了位置
+     * @return 文字列
+     */
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        body.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * バッファの現在位置から1行を読み込み、位置を次の行頭に進める。
+     *
+     * @param buffer バッファ
+     * @return 読み込んだ行（バッファの終端に達している場合はnull）
+     */
+    private static String readLine(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        int start = buffer.position();
+        while (buffer.hasRemaining() && buffer.get() != LF) {
+            // 改行文字まで読み進める。
+        }
+        int end = buffer.position() - ((buffer.get(buffer.position() - 1) == LF) ? 1 : 0);
+        byte[] bytes = new byte[end - start];
+        buffer.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
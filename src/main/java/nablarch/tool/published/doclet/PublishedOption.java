@@ -2,7 +2,9 @@ package nablarch.tool.published.doclet;
 
 import jdk.javadoc.doclet.Doclet;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -13,9 +15,42 @@ import java.util.Set;
  * @author Tanaka Tomoyuki
  */
 public class PublishedOption {
-    
+
+    /**
+     * {@link PublishedWhitelistDoclet}で受け付けて無視する、標準ドックレットのオプション（値は引数の数）。
+     * <p>
+     * maven-javadoc-plugin等から強制的に渡されても実行が失敗しないよう、JDK 17の標準ドックレットのオプションを列挙している。
+     * 名前が{@code :}で終わるオプションは、javadocにより前方一致で照合される。
+     * {@code -tag}は本ドックレットのオプションとして処理するため含めない。
+     * </p>
+     */
+    private static final Map<String, Integer> IGNORED_STANDARD_OPTIONS = Map.ofEntries(
+            Map.entry("--add-stylesheet", 1), Map.entry("--allow-script-in-comments", 0),
+            Map.entry("--javafx", 0), Map.entry("-javafx", 0),
+            Map.entry("--legal-notices", 1), Map.entry("--link-platform-properties", 1),
+            Map.entry("--main-stylesheet", 1), Map.entry("-stylesheetfile", 1),
+            Map.entry("--no-frames", 0), Map.entry("--no-platform-links", 0),
+            Map.entry("--override-methods", 1), Map.entry("--since", 1), Map.entry("--since-label", 1),
+            Map.entry("-Xdoclint", 0), Map.entry("-Xdoclint:", 0), Map.entry("-Xdoclint/package:", 0),
+            Map.entry("-Xdocrootparent", 1),
+            Map.entry("-author", 0), Map.entry("-bottom", 1), Map.entry("-charset", 1), Map.entry("-d", 1),
+            Map.entry("-docencoding", 1), Map.entry("-docfilessubdirs", 0), Map.entry("-doctitle", 1),
+            Map.entry("-encoding", 1), Map.entry("-excludedocfilessubdir", 1), Map.entry("-footer", 1),
+            Map.entry("-group", 2), Map.entry("-header", 1), Map.entry("-helpfile", 1), Map.entry("-html5", 0),
+            Map.entry("-keywords", 0), Map.entry("-link", 1), Map.entry("-linkoffline", 2),
+            Map.entry("-linksource", 0), Map.entry("-nocomment", 0), Map.entry("-nodeprecated", 0),
+            Map.entry("-nodeprecatedlist", 0), Map.entry("-nohelp", 0), Map.entry("-noindex", 0),
+            Map.entry("-nonavbar", 0), Map.entry("-nooverview", 0), Map.entry("-noqualifier", 1),
+            Map.entry("-nosince", 0), Map.entry("-notimestamp", 0), Map.entry("-notree", 0),
+            Map.entry("-overview", 1), Map.entry("-packagesheader", 1), Map.entry("-quiet", 0),
+            Map.entry("-serialwarn", 0), Map.entry("-sourcetab", 1), Map.entry("-splitindex", 0),
+            Map.entry("-taglet", 1), Map.entry("-tagletpath", 1), Map.entry("-top", 1), Map.entry("-use", 0),
+            Map.entry("-version", 0), Map.entry("-windowtitle", 1));
+
     private List<String> tags = List.of();
     private String output;
+    private String annotation = PublishedCollector.DEFAULT_ANNOTATION_NAME;
+    private boolean indexed = false;
 
     /**
      * オプションで指定されたタグの一覧を取得する。
@@ -33,6 +68,22 @@ public class PublishedOption {
         return output;
     }
 
+    /**
+     * オプションで指定されたPublishedアノテーションの完全修飾名を取得する。
+     * @return Publishedアノテーションの完全修飾名（指定されていない場合はデフォルトの完全修飾名）
+     */
+    public String getAnnotation() {
+        return annotation;
+    }
+
+    /**
+     * オプションでインデックス形式の出力が指定されたかどうかを取得する。
+     * @return インデックス形式で出力する場合、真
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
     /**
      * サポートしているオプションのセットを取得する。
      * @return サポートしているオプションのセット
@@ -53,10 +104,52 @@ public class PublishedOption {
                     output = arguments.get(0);
                     return true;
                 }
+            },
+            new AbstractOption(1, "Publishedアノテーションの完全修飾名", List.of("-annotation"), "<fqcn>") {
+                @Override
+                public boolean process(String option, List<String> arguments) {
+                    annotation = arguments.get(0);
+                    return true;
+                }
+            },
+            new AbstractOption(1, "出力形式（plain：1行に1つのAPI、indexed：パッケージごとの索引付き）", List.of("-format"),
+                    "plain|indexed") {
+                @Override
+                public boolean process(String option, List<String> arguments) {
+                    String arg = arguments.get(0);
+                    if (!"plain".equals(arg) && !"indexed".equals(arg)) {
+                        return false;
+                    }
+                    indexed = "indexed".equals(arg);
+                    return true;
+                }
             }
         );
     }
 
+    /**
+     * 標準ドックレットのオプションのうち、受け付けて無視するオプションのセットを取得する。
+     * @return 無視するオプションのセット
+     */
+    public Set<? extends Doclet.Option> getIgnoredStandardOptions() {
+        Set<Doclet.Option> options = new LinkedHashSet<>();
+        for (Map.Entry<String, Integer> entry : IGNORED_STANDARD_OPTIONS.entrySet()) {
+            options.add(new AbstractOption(entry.getValue(), "標準ドックレットのオプション（無視される）",
+                                           List.of(entry.getKey()), "") {
+                @Override
+                public Kind getKind() {
+                    return Kind.OTHER;
+                }
+
+                @Override
+                public boolean process(String option, List<String> arguments) {
+                    return true;
+                }
+            });
+        }
+        return options;
+    }
+
     /**
      * {@link Doclet.Option}の共通部分を実装した抽象クラス。
      */
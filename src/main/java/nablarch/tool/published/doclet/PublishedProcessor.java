@@ -0,0 +1,268 @@
+package nablarch.tool.published.doclet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * コンパイル時にPublishedアノテーションが付与された要素を抽出し、ファイルに出力するアノテーションプロセッサ。<br/>
+ * {@link PublishedDoclet}と同じ内容の設定ファイルを、javadocを実行せずに通常のコンパイルの中で作成できる。
+ * <p>
+ * 設定ファイルは、クラスの出力先ディレクトリ配下にリソースとして出力される。
+ * 以下のプロセッサオプション（{@code -A}）を指定できる。
+ * </p>
+ * <ul>
+ * <li>nablarch.published.tag：出力対象のPublishedのタグ（カンマ区切りで複数指定可）</li>
+ * <li>nablarch.published.output：クラスの出力先ディレクトリからの相対パス（デフォルトは{@value #DEFAULT_OUTPUT}）</li>
+ * <li>nablarch.published.annotation：Publishedアノテーションの完全修飾名</li>
+ * <li>nablarch.published.format：出力形式（{@code plain}または{@code indexed}）</li>
+ * </ul>
+ * 以下に例を示す。
+ * <pre>
+ * javac -processor nablarch.tool.published.doclet.PublishedProcessor -Anablarch.published.tag=architect ...
+ * </pre>
+ * <p>
+ * 本プロセッサは自動的には登録されないため、使用する場合は{@code -processor}オプション等で明示的に指定すること。
+ * 要素の解析のみを行い、アノテーションを要求しないため、他のアノテーションプロセッサの処理には影響しない。
+ * </p>
+ * <p>
+ * 設定ファイルは、そのコンパイルで処理されたクラスから作成される。
+ * 変更されたクラスのみを再コンパイルするインクリメンタルコンパイル（IDEのビルド等）で実行した場合は、
+ * 前回出力した設定ファイルから、再コンパイルされなかったクラスの公開APIを引き継ぐ。
+ * 引き継ぐのは、クラスパス・ソースパスから解決できるクラスの公開APIのみであり、削除されたクラスの公開APIは引き継がない。
+ * </p>
+ * <p>
+ * javadocの{@code -protected}オプションと同様に、public・protectedではないクラスは解析の対象外とする。
+ * 囲むクラスがpublic・protectedではない内部クラスも対象外となるため、
+ * {@code -protected}を指定して実行した{@link PublishedDoclet}と同じ内容が出力される。
+ * </p>
+ */
+public class PublishedProcessor extends AbstractProcessor {
+
+    /** タグを指定するオプション */
+    static final String OPTION_TAG = "nablarch.published.tag";
+
+    /** 出力先を指定するオプション */
+    static final String OPTION_OUTPUT = "nablarch.published.output";
+
+    /** Publishedアノテーションを指定するオプション */
+    static final String OPTION_ANNOTATION = "nablarch.published.annotation";
+
+    /** 出力形式を指定するオプション */
+    static final String OPTION_FORMAT = "nablarch.published.format";
+
+    /** デフォルトの出力先 */
+    static final String DEFAULT_OUTPUT = "published.config";
+
+    /** 設定ファイルの生成に利用するクラス */
+    private PublishedConfigGenerator generator;
+
+    /** パッケージごとの公開APIの一覧（全ラウンドの結果を蓄積する） */
+    private final Map<String, List<String>> apisByPackage = new TreeMap<>();
+
+    /** このコンパイルで処理したトップレベルクラスの完全修飾名（全ラウンドの結果を蓄積する） */
+    private final Set<String> compiledTypes = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Publishedアノテーションが付与されていないクラスの内部クラスも解析するため、全てのクラスを対象とする。
+        return Set.of("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(OPTION_TAG, OPTION_OUTPUT, OPTION_ANNOTATION, OPTION_FORMAT);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        Map<String, String> options = processingEnv.getOptions();
+        String tag = options.get(OPTION_TAG);
+        List<String> tags = (tag == null || tag.isEmpty()) ? List.of() : List.of(tag.split(","));
+        String annotation = options.getOrDefault(OPTION_ANNOTATION, PublishedCollector.DEFAULT_ANNOTATION_NAME);
+        PublishedCollector collector = new PublishedCollector(tags, annotation, processingEnv.getElementUtils());
+        generator = new PublishedConfigGenerator(collector, processingEnv.getTypeUtils());
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+            return false;
+        }
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            compiledTypes.add(typeElement.getQualifiedName().toString());
+            collect(typeElement);
+        }
+        return false;
+    }
+
+    /**
+     * 指定されたクラスと、その内部クラスの公開APIの一覧を収集する。
+     * <p/>
+     * javadocがドックレットに渡すクラスと同様に、内部クラスもそれぞれ解析の対象とする。
+     * public・protectedではないクラスは、その内部クラスを含めて対象外とする。
+     *
+     * @param typeElement クラスの構造情報
+     */
+    private void collect(TypeElement typeElement) {
+        Set<Modifier> modifiers = typeElement.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)) {
+            return;
+        }
+        generator.collect(typeElement, processingEnv.getElementUtils(), apisByPackage);
+        for (TypeElement nested : ElementFilter.typesIn(typeElement.getEnclosedElements())) {
+            collect(nested);
+        }
+    }
+
+    /**
+     * 収集した公開APIの一覧を出力する。
+     */
+    private void write() {
+        Map<String, String> options = processingEnv.getOptions();
+        String output = options.getOrDefault(OPTION_OUTPUT, DEFAULT_OUTPUT);
+        String format = options.getOrDefault(OPTION_FORMAT, "plain");
+        if (!"plain".equals(format) && !"indexed".equals(format)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "invalid format. format=[" + format + "] (plain or indexed)");
+            return;
+        }
+        try {
+            mergePrevious(output);
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", output);
+            try (OutputStream out = resource.openOutputStream()) {
+                generator.write(apisByPackage, out, "indexed".equals(format));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write file. file=[" + output + "] cause=[" + e + "]");
+        }
+    }
+
+    /**
+     * 前回出力した設定ファイルから、このコンパイルで処理しなかったクラスの公開APIを引き継ぐ。
+     * <p/>
+     * インクリメンタルコンパイルで、再コンパイルされなかったクラスの公開APIが欠落しないようにするための処理である。
+     * 公開APIが属するクラスを解決できない場合（クラスが削除された場合等）は、引き継がない。
+     *
+     * @param output 設定ファイルの出力先
+     * @throws IOException 前回の設定ファイルの読み込みに失敗した場合
+     */
+    private void mergePrevious(String output) throws IOException {
+        List<String> previous = readPrevious(output);
+        Elements elements = processingEnv.getElementUtils();
+        int kept = 0;
+        for (String api : previous) {
+            TypeElement owner = findOwner(api, elements);
+            if (owner == null || compiledTypes.contains(topLevelOf(owner).getQualifiedName().toString())) {
+                continue;
+            }
+            String packageName = elements.getPackageOf(owner).getQualifiedName().toString();
+            apisByPackage.computeIfAbsent(packageName, k -> new ArrayList<>()).add(api);
+            kept++;
+        }
+        if (kept > 0) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "kept " + kept + " published APIs of classes not compiled in this build. file=[" + output + "]");
+        }
+    }
+
+    /**
+     * 前回出力した設定ファイルの公開APIの一覧を読み込む。
+     * 出力形式は、ファイルの内容から判定する。
+     *
+     * @param output 設定ファイルの出力先
+     * @return 公開APIの一覧（前回の設定ファイルが存在しない場合は空のリスト）
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private List<String> readPrevious(String output) throws IOException {
+        byte[] content;
+        try (InputStream in = processingEnv.getFiler()
+                                           .getResource(StandardLocation.CLASS_OUTPUT, "", output)
+                                           .openInputStream()) {
+            content = in.readAllBytes();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return List.of();
+        }
+        byte[] header = (PublishedIndex.HEADER + '\n').getBytes(StandardCharsets.UTF_8);
+        if (content.length >= header.length && Arrays.equals(header, 0, header.length, content, 0, header.length)) {
+            PublishedIndex index = PublishedIndex.open(ByteBuffer.wrap(content), output);
+            List<String> apis = new ArrayList<>();
+            for (String packageName : index.getPackages()) {
+                apis.addAll(index.getApis(packageName));
+            }
+            return apis;
+        }
+        return new String(content, Charset.defaultCharset()).lines()
+                                                           .filter(line -> !line.isEmpty())
+                                                           .collect(Collectors.toList());
+    }
+
+    /**
+     * 公開APIが属するクラスを取得する。
+     * <p/>
+     * 公開APIは、クラスの完全修飾名、またはクラスの完全修飾名にメンバ名（メソッド・コンストラクタの場合は引数を含む）を
+     * 付加したものである。
+     *
+     * @param api 公開API
+     * @param elements 要素を操作するためのユーティリティ
+     * @return クラスの構造情報（解決できない場合はnull）
+     */
+    private static TypeElement findOwner(String api, Elements elements) {
+        int paren = api.indexOf('(');
+        String name = (paren < 0) ? api : api.substring(0, paren);
+        if (paren < 0) {
+            TypeElement type = elements.getTypeElement(name);
+            if (type != null) {
+                return type;
+            }
+        }
+        int dot = name.lastIndexOf('.');
+        return (dot < 0) ? null : elements.getTypeElement(name.substring(0, dot));
+    }
+
+    /**
+     * 指定されたクラスを囲むトップレベルクラスを取得する。
+     *
+     * @param typeElement クラスの構造情報
+     * @return トップレベルクラスの構造情報（指定されたクラスがトップレベルクラスの場合は、そのクラス）
+     */
+    private static TypeElement topLevelOf(TypeElement typeElement) {
+        TypeElement topLevel = typeElement;
+        while (topLevel.getEnclosingElement() instanceof TypeElement) {
+            topLevel = (TypeElement) topLevel.getEnclosingElement();
+        }
+        return topLevel;
+    }
+}
@@ -0,0 +1,59 @@
+package nablarch.tool.published.doclet;
+
+import jdk.javadoc.doclet.Doclet;
+import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
+
+import javax.lang.model.SourceVersion;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 「使用不許可APIチェックツール」用設定ファイルの生成のみを行う、軽量なドックレット実装。<br/>
+ * <p>
+ * {@link PublishedDoclet}と同じオプションを受け付け、同じ内容のファイルを出力する。
+ * {@link PublishedDoclet}と異なり標準ドックレットを継承しないため、
+ * 標準ドックレットの初期化やHTML出力用の設定の読み込みは行われない。
+ * </p>
+ * <p>
+ * maven-javadoc-plugin等から強制的に渡される標準ドックレットのオプション（{@code -d}、{@code -charset}等）は、
+ * エラーとせずに無視する。
+ * </p>
+ */
+public final class PublishedWhitelistDoclet implements Doclet {
+
+    /** メッセージの出力先 */
+    private Reporter reporter;
+
+    /** 起動オプション */
+    private final PublishedOption options = new PublishedOption();
+
+    @Override
+    public void init(Locale locale, Reporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Override
+    public String getName() {
+        return "PublishedWhitelistDoclet";
+    }
+
+    @Override
+    public Set<? extends Option> getSupportedOptions() {
+        // 本ドックレットの -tag オプションが確実に処理されるよう、本ドックレットのオプションを先に登録する。
+        Set<Option> supportedOptions = new LinkedHashSet<>(options.getSupportedOptions());
+        supportedOptions.addAll(options.getIgnoredStandardOptions());
+        return supportedOptions;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean run(DocletEnvironment environment) {
+        return PublishedDoclet.generate(environment, options, reporter);
+    }
+}
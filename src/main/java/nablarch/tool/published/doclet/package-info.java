@@ -44,6 +44,13 @@
  * </dt>
  * <dd>{@code @Published}のtag属性に、オプションで指定されたタグと合致するタグが指定されている場合、出力される。</dd>
  * </dl>
+ *
+ * <h2>アノテーションプロセッサによる出力</h2>
+ * <p>
+ * {@link nablarch.tool.published.doclet.PublishedProcessor}を使用すると、javadocを実行せずに、
+ * 通常のコンパイルの中で同じ判定ルールによるファイルを出力できる。
+ * インクリメンタルコンパイルで実行した場合の動作は、クラスのJavadocを参照。
+ * </p>
  * @see nablarch.core.util.annotation.Published
  */
 package nablarch.tool.published.doclet;
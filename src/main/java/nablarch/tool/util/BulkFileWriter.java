@@ -0,0 +1,437 @@
+package nablarch.tool.util;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多数のファイルを、複数のスレッドで並行して出力するクラス。
+ * <p/>
+ * {@link #add(File, String)}または{@link #add(File, SourceBuilder)}で出力するファイルを登録し、
+ * {@link #write()}で一括して出力する。
+ * 個々のファイルの出力には{@link SimpleWriter}を使用する。
+ * {@link #setSeal(boolean)}を指定した場合は、書き込み可否の切り替えも含めて各スレッドで行う。
+ * <p/>
+ * 出力先のディレクトリは、出力を開始する前に親ディレクトリごとに1度だけ作成する。
+ * 同時に出力するファイルの数は{@link #setParallelism(int)}で指定した並列度までに制限される。
+ * <p/>
+ * 一部のファイルの出力に失敗しても、残りのファイルの出力は継続する。
+ * 失敗したファイルと例外は{@link Result#getErrors()}で取得できる。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ */
+public class BulkFileWriter {
+
+    /** デフォルトの並列度 */
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    /** 出力するファイル（キーは出力先ファイル。登録順に順序付けされている） */
+    private final Map<File, Job> jobs = new LinkedHashMap<File, Job>();
+
+    /** 並列度 */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /** ファイルの出力に使用する{@link Executor}（未設定の場合はnull） */
+    private Executor executor;
+
+    /** エンコーディング */
+    private Charset encoding = Charset.forName("UTF-8");
+
+    /** 出力ファイルを読み取り専用にするか */
+    private boolean seal = false;
+
+    /** 内容が同一の場合に書き込みを省略するか */
+    private boolean skipUnchanged = false;
+
+    /**
+     * 並列度（同時に出力するファイルの最大数）を設定する。
+     * （デフォルトは{@link #DEFAULT_PARALLELISM}）
+     *
+     * @param parallelism 並列度
+     * @return 本インスタンス自身
+     */
+    public BulkFileWriter setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive. parallelism=[" + parallelism + "]");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * ファイルの出力に使用する{@link Executor}を設定する。
+     * 設定しない場合は、{@link #write()}の呼び出しごとに並列度分のスレッドを作成する。
+     *
+     * @param executor ファイルの出力に使用する{@link Executor}
+     * @return 本インスタンス自身
+     */
+    public BulkFileWriter setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * エンコーディングを設定する。
+     * （デフォルトはUTF-8）
+     *
+     * @param encoding エンコーディング
+     * @return 本インスタンス自身
+     */
+    public BulkFileWriter setEncoding(Charset encoding) {
+        this.encoding = Arg.notNull(encoding, "encoding");
+        return this;
+    }
+
+    /**
+     * 出力ファイルを読み取り専用にするか設定する。
+     * （デフォルトは偽）
+     *
+     * @param seal 読み取り専用にする場合、真
+     * @return 本インスタンス自身
+     * @see SimpleWriter#writeAndSeal(File, String, Charset)
+     */
+    public BulkFileWriter setSeal(boolean seal) {
+        this.seal = seal;
+        return this;
+    }
+
+    /**
+     * 内容が既存のファイルと同一の場合に、書き込みを省略するか設定する。
+     * （デフォルトは偽）
+     *
+     * @param skipUnchanged 書き込みを省略する場合、真
+     * @return 本インスタンス自身
+     * @see SimpleWriter#writeIfChanged(File, String, Charset)
+     */
+    public BulkFileWriter setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+        return this;
+    }
+
+    /**
+     * 出力するファイルを登録する。
+     *
+     * @param outFile 出力先ファイル
+     * @param content 出力内容
+     * @return 本インスタンス自身
+     * @throws IllegalArgumentException 出力先ファイルが登録済みの場合
+     */
+    public BulkFileWriter add(File outFile, String content) throws IllegalArgumentException {
+        return addJob(outFile, new Job(Arg.notNull(content, "content"), null));
+    }
+
+    /**
+     * 出力するファイルを登録する。
+     * 出力内容の組み立て（{@link SourceBuilder#getContent()}）も、ファイルの出力と同じスレッドで行う。
+     * 出力先（ライター等）へ直接書き込む{@link SourceBuilder}は、出力内容を取得できないため指定できない。
+     *
+     * @param outFile 出力先ファイル
+     * @param source  出力内容
+     * @return 本インスタンス自身
+     * @throws IllegalArgumentException 出力先ファイルが登録済みの場合、または出力内容を取得できない場合
+     */
+    public BulkFileWriter add(File outFile, SourceBuilder source) throws IllegalArgumentException {
+        if (!Arg.notNull(source, "source").hasContent()) {
+            throw new IllegalArgumentException(
+                    "source must not write to out directly. file=[" + outFile + "]");
+        }
+        return addJob(outFile, new Job(null, source));
+    }
+
+    /**
+     * 出力するファイルを登録する。
+     *
+     * @param outFile 出力先ファイル
+     * @param job     出力内容
+     * @return 本インスタンス自身
+     * @throws IllegalArgumentException 出力先ファイルが登録済みの場合
+     */
+    private BulkFileWriter addJob(File outFile, Job job) throws IllegalArgumentException {
+        File key = Arg.notNull(outFile, "outFile").getAbsoluteFile();
+        if (jobs.containsKey(key)) {
+            throw new IllegalArgumentException("file has already been added. file=[" + key.getPath() + "]");
+        }
+        jobs.put(key, job);
+        return this;
+    }
+
+    /**
+     * 登録されたファイルを出力する。
+     * 出力後、登録されたファイルはクリアされる。
+     *
+     * @return 出力結果
+     * @throws RuntimeException 出力中に割り込まれた場合
+     */
+    public Result write() throws RuntimeException {
+        final List<File> files = new ArrayList<File>(jobs.keySet());
+        final List<Job> contents = new ArrayList<Job>(jobs.values());
+        jobs.clear();
+        final Outcome[] outcomes = new Outcome[files.size()];
+        final RuntimeException[] errors = new RuntimeException[files.size()];
+
+        // ディレクトリは親ディレクトリごとに1度だけ作成する。
+        Set<File> failedDirs = createDirectories(files);
+        for (int i = 0; i < files.size(); i++) {
+            File dir = files.get(i).getParentFile();
+            if (failedDirs.contains(dir)) {
+                errors[i] = new IllegalStateException("could not create directory [" + dir.getPath() + "]");
+                outcomes[i] = Outcome.FAILED;
+            }
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(parallelism, files.size());
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(new FutureTask<Void>(new Callable<Void>() {
+                public Void call() {
+                    for (int i = next.getAndIncrement(); i < outcomes.length; i = next.getAndIncrement()) {
+                        if (outcomes[i] != null) {
+                            continue;
+                        }
+                        try {
+                            outcomes[i] = writeFile(files.get(i), contents.get(i).content());
+                        } catch (RuntimeException e) {
+                            errors[i] = e;
+                            outcomes[i] = Outcome.FAILED;
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        run(tasks);
+        return new Result(files, outcomes, errors);
+    }
+
+    /**
+     * 出力先の親ディレクトリを作成する。
+     *
+     * @param files 出力先ファイル
+     * @return 作成に失敗したディレクトリ
+     */
+    private static Set<File> createDirectories(List<File> files) {
+        Set<File> dirs = new LinkedHashSet<File>();
+        for (File file : files) {
+            dirs.add(file.getParentFile());
+        }
+        Set<File> failed = new LinkedHashSet<File>();
+        for (File dir : dirs) {
+            if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                failed.add(dir);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * ファイルの出力を実行し、完了を待つ。
+     *
+     * @param tasks ファイルの出力
+     */
+    private void run(List<FutureTask<Void>> tasks) {
+        ExecutorService ownExecutor = null;
+        Executor exec = executor;
+        if (exec == null && !tasks.isEmpty()) {
+            ownExecutor = Executors.newFixedThreadPool(tasks.size());
+            exec = ownExecutor;
+        }
+        try {
+            for (FutureTask<Void> task : tasks) {
+                exec.execute(task);
+            }
+            for (FutureTask<Void> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            // ファイルごとの例外は記録済みのため、ここに到達するのはErrorの場合のみ。
+            for (FutureTask<Void> task : tasks) {
+                task.cancel(true);
+            }
+            throw new RuntimeException("unexpected error occurred while writing files.", e.getCause());
+        } catch (InterruptedException e) {
+            for (FutureTask<Void> task : tasks) {
+                task.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while writing files.", e);
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * ファイルを1つ出力する。
+     *
+     * @param outFile 出力先ファイル
+     * @param content 出力内容
+     * @return 出力結果
+     */
+    private Outcome writeFile(File outFile, String content) {
+        if (skipUnchanged) {
+            boolean written = seal
+                    ? SimpleWriter.writeAndSealIfChanged(outFile, content, encoding)
+                    : SimpleWriter.writeIfChanged(outFile, content, encoding);
+            return written ? Outcome.WRITTEN : Outcome.SKIPPED;
+        }
+        if (seal) {
+            SimpleWriter.writeAndSeal(outFile, content, encoding);
+        } else {
+            SimpleWriter.write(outFile, content, encoding);
+        }
+        return Outcome.WRITTEN;
+    }
+
+    /** ファイルごとの出力結果 */
+    private enum Outcome {
+        /** 書き込んだ */
+        WRITTEN,
+        /** 内容が同一のため書き込みを省略した */
+        SKIPPED,
+        /** 失敗した */
+        FAILED
+    }
+
+    /**
+     * 登録された出力内容。
+     */
+    private static final class Job {
+
+        /** 出力内容（{@link #source}を使用する場合はnull） */
+        private final String content;
+
+        /** 出力内容を組み立てる{@link SourceBuilder}（{@link #content}を使用する場合はnull） */
+        private final SourceBuilder source;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param content 出力内容
+         * @param source  出力内容を組み立てる{@link SourceBuilder}
+         */
+        private Job(String content, SourceBuilder source) {
+            this.content = content;
+            this.source = source;
+        }
+
+        /**
+         * 出力内容を取得する。
+         *
+         * @return 出力内容
+         */
+        private String content() {
+            return (content != null) ? content : source.getContent();
+        }
+    }
+
+    /**
+     * {@link BulkFileWriter#write()}の出力結果。
+     */
+    public static final class Result {
+
+        /** 書き込んだファイル */
+        private final List<File> writtenFiles = new ArrayList<File>();
+
+        /** 内容が同一のため書き込みを省略したファイル */
+        private final List<File> skippedFiles = new ArrayList<File>();
+
+        /** 出力に失敗したファイルと例外 */
+        private final Map<File, RuntimeException> errors = new LinkedHashMap<File, RuntimeException>();
+
+        /**
+         * コンストラクタ。
+         *
+         * @param files    出力先ファイル
+         * @param outcomes ファイルごとの出力結果
+         * @param errors   ファイルごとの例外
+         */
+        private Result(List<File> files, Outcome[] outcomes, RuntimeException[] errors) {
+            for (int i = 0; i < outcomes.length; i++) {
+                switch (outcomes[i]) {
+                    case WRITTEN:
+                        writtenFiles.add(files.get(i));
+                        break;
+                    case SKIPPED:
+                        skippedFiles.add(files.get(i));
+                        break;
+                    default:
+                        this.errors.put(files.get(i), errors[i]);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * 書き込んだファイルを取得する。
+         *
+         * @return 書き込んだファイル（登録順）
+         */
+        public List<File> getWrittenFiles() {
+            return Collections.unmodifiableList(writtenFiles);
+        }
+
+        /**
+         * 内容が同一のため書き込みを省略したファイルを取得する。
+         *
+         * @return 書き込みを省略したファイル（登録順）
+         */
+        public List<File> getSkippedFiles() {
+            return Collections.unmodifiableList(skippedFiles);
+        }
+
+        /**
+         * 出力に失敗したファイルと、その原因となった例外を取得する。
+         *
+         * @return 出力に失敗したファイルと例外（登録順）
+         */
+        public Map<File, RuntimeException> getErrors() {
+            return Collections.unmodifiableMap(errors);
+        }
+
+        /**
+         * 出力に失敗したファイルが存在するか判定する。
+         *
+         * @return 存在する場合、真
+         */
+        public boolean hasErrors() {
+            return !errors.isEmpty();
+        }
+
+        /**
+         * 出力に失敗したファイルが存在する場合、例外を送出する。
+         * 最初に失敗したファイルの例外を原因とし、以降の例外は抑制された例外として追加する。
+         *
+         * @throws RuntimeException 出力に失敗したファイルが存在する場合
+         */
+        public void throwIfFailed() throws RuntimeException {
+            if (errors.isEmpty()) {
+                return;
+            }
+            RuntimeException failure = null;
+            for (Map.Entry<File, RuntimeException> entry : errors.entrySet()) {
+                if (failure == null) {
+                    failure = new RuntimeException("failed to write " + errors.size() + " file(s)."
+                            + " first=[" + entry.getKey().getPath() + "]", entry.getValue());
+                } else {
+                    failure.addSuppressed(entry.getValue());
+                }
+            }
+            throw failure;
+        }
+    }
+}
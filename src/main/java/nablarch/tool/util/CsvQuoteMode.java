@@ -0,0 +1,19 @@
+package nablarch.tool.util;
+
+/** CSV出力時に値を引用符（<code>"</code>）で囲む条件を表す列挙型。 */
+public enum CsvQuoteMode {
+    /**
+     * 必要な場合のみ囲む（RFC 4180）。
+     * 値に区切り文字（<code>,</code>）・引用符・改行文字（CR・LF）が含まれる場合に囲む。
+     * また、1カラムのみの行で値が空文字の場合は、空行と区別するために囲む。
+     */
+    MINIMAL,
+    /** 全ての値を囲む。 */
+    ALL,
+    /**
+     * 囲まない。
+     * 値はそのまま出力されるため、値に区切り文字・引用符・改行文字が含まれる場合、
+     * 出力結果はCSVとして正しく読み込めない。
+     */
+    NONE
+}
@@ -0,0 +1,462 @@
+package nablarch.tool.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * CSV形式のデータを1行ずつ読み込むクラス。
+ * <p/>
+ * RFC 4180に従い、引用符（<code>"</code>）で囲まれた値に含まれる区切り文字・改行・
+ * 2つ重ねた引用符を正しく解釈する。
+ * レコードの区切りにはCRLF・LF・CRのいずれも使用できる。
+ * 空行（値を1つも含まない行）は読み飛ばす。
+ * <p/>
+ * 入力は固定サイズの文字バッファを再利用しながら逐次デコードするため、
+ * ファイルサイズによらず一定のヒープで読み込むことができる。
+ * {@link #openMapped(String, String)}で開いた場合は、ファイルをメモリマップして読み込む。
+ * <p/>
+ * {@link CsvWriter}・{@link CsvUtil#writeFile}で出力したファイルは、
+ * {@link #readMap()}で出力前と同じ内容（値がnullの場合を除く）に読み戻すことができる。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ * 使用後は必ず{@link #close()}を呼び出すこと。
+ */
+public class CsvReader implements Closeable {
+
+    /** デフォルトのバッファサイズ（文字数） */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** 区切り文字 */
+    private static final char SEPARATOR = ',';
+
+    /** 引用符 */
+    private static final char QUOTE = '"';
+
+    /** 入力の終端を表す値 */
+    private static final int EOF = -1;
+
+    /** 入力 */
+    private final Reader reader;
+
+    /** 入力元の名称（例外メッセージに使用する） */
+    private final String source;
+
+    /** 文字バッファ */
+    private final char[] buf;
+
+    /** 文字バッファ内の次に読み込む位置 */
+    private int pos = 0;
+
+    /** 文字バッファ内の有効な文字数 */
+    private int limit = 0;
+
+    /** バッファをまたぐ値の組み立てに使用するバッファ */
+    private final StringBuilder field = new StringBuilder();
+
+    /** 読み込み中のレコードの値 */
+    private final List<String> values = new ArrayList<String>();
+
+    /** 前回返却したレコード（再利用する） */
+    private String[] row = new String[0];
+
+    /** ヘッダ（未読込の場合はnull） */
+    private String[] header;
+
+    /** 読み込み中の行番号（1オリジン） */
+    private long lineNumber = 1;
+
+    /** 読み込んだレコードの開始行番号（1オリジン） */
+    private long recordLineNumber = 0;
+
+    /** 読み込んだレコード数（ヘッダを含む） */
+    private long recordCount = 0;
+
+    /**
+     * コンストラクタ。
+     * バッファサイズには{@link #DEFAULT_BUFFER_SIZE}を使用する。
+     *
+     * @param filePath 入力ファイルのパス
+     * @param charset  文字コード
+     */
+    public CsvReader(String filePath, String charset) {
+        this(filePath, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param filePath   入力ファイルのパス
+     * @param charset    文字コード
+     * @param bufferSize バッファサイズ（文字数）
+     */
+    public CsvReader(String filePath, String charset, int bufferSize) {
+        this(openStream(new File(filePath), charset), new File(filePath).getAbsolutePath(), bufferSize);
+    }
+
+    /**
+     * コンストラクタ。
+     * バッファサイズには{@link #DEFAULT_BUFFER_SIZE}を使用する。
+     *
+     * @param reader 入力
+     */
+    public CsvReader(Reader reader) {
+        this(Arg.notNull(reader, "reader"), reader.toString(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param reader     入力
+     * @param source     入力元の名称
+     * @param bufferSize バッファサイズ（文字数）
+     */
+    private CsvReader(Reader reader, String source, int bufferSize) {
+        if (bufferSize <= 0) {
+            FileUtil.closeQuietly(reader);
+            throw new IllegalArgumentException("bufferSize must be positive. bufferSize=[" + bufferSize + "]");
+        }
+        this.reader = reader;
+        this.source = source;
+        this.buf = new char[bufferSize];
+    }
+
+    /**
+     * ファイルをメモリマップして読み込む{@link CsvReader}を作成する。
+     * <p/>
+     * ファイルの内容はヒープにコピーされず、OSのページキャッシュから直接デコードされる。
+     * 大きなファイルを読み込む場合に有効である。2GBを超えるファイルも読み込むことができる。
+     *
+     * @param filePath 入力ファイルのパス
+     * @param charset  文字コード
+     * @return 作成したインスタンス
+     */
+    public static CsvReader openMapped(String filePath, String charset) {
+        File file = new File(filePath);
+        Charset cs = toCharset(charset);
+        checkExists(file);
+        try {
+            return new CsvReader(new MappedFileReader(file, cs), file.getAbsolutePath(), DEFAULT_BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. file=[" + file.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * ファイルを開く。
+     *
+     * @param file    ファイル
+     * @param charset 文字コード
+     * @return 入力
+     */
+    private static Reader openStream(File file, String charset) {
+        Charset cs = toCharset(charset);
+        try {
+            return new InputStreamReader(new FileInputStream(file), cs);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File is not found. file=[" + file.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * ファイルが存在することを確認する。
+     *
+     * @param file ファイル
+     */
+    private static void checkExists(File file) {
+        if (!file.isFile()) {
+            throw new RuntimeException("File is not found. file=[" + file.getAbsolutePath() + "]",
+                                       new FileNotFoundException(file.getPath()));
+        }
+    }
+
+    /**
+     * 文字コード名を{@link Charset}に変換する。
+     *
+     * @param charset 文字コード名
+     * @return 文字コード
+     */
+    private static Charset toCharset(String charset) {
+        try {
+            return Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("this encoding is not supported. encoding=[" + charset + "]", e);
+        }
+    }
+
+    /**
+     * 次のレコードを読み込む。
+     * <p/>
+     * 返却される配列は、値の数が同じであれば次回の呼び出しで再利用される。
+     * 値を保持し続ける場合は、呼び出し元で複製すること。
+     *
+     * @return レコードの値（入力の終端に達した場合はnull）
+     * @throws RuntimeException CSVの形式が不正な場合、または入出力例外が発生した場合
+     */
+    public String[] readRow() throws RuntimeException {
+        if (!readRecord()) {
+            return null;
+        }
+        if (row.length != values.size()) {
+            row = new String[values.size()];
+        }
+        return values.toArray(row);
+    }
+
+    /**
+     * ヘッダ（先頭レコード）を取得する。
+     * ヘッダを読み込んでいない場合は、次のレコードをヘッダとして読み込む。
+     *
+     * @return ヘッダ（入力が空の場合は空の配列）
+     */
+    public String[] getHeader() {
+        if (header == null) {
+            header = readRecord() ? values.toArray(new String[values.size()]) : new String[0];
+        }
+        return header.clone();
+    }
+
+    /**
+     * 次のレコードを、ヘッダの値をキーとするMapとして読み込む。
+     * ヘッダを読み込んでいない場合は、先頭レコードをヘッダとして読み込む。
+     *
+     * @return レコード（ヘッダの順に順序付けされている。入力の終端に達した場合はnull）
+     * @throws RuntimeException 値の数がヘッダのカラム数と一致しない場合、CSVの形式が不正な場合、
+     *                          または入出力例外が発生した場合
+     */
+    public Map<String, String> readMap() throws RuntimeException {
+        if (header == null) {
+            getHeader();
+        }
+        if (!readRecord()) {
+            return null;
+        }
+        if (values.size() != header.length) {
+            throw formatError("number of fields must be " + header.length + "."
+                                      + " fields=[" + values.size() + "] header=" + Arrays.toString(header),
+                              recordLineNumber);
+        }
+        Map<String, String> map = new LinkedHashMap<String, String>(header.length * 2);
+        for (int i = 0; i < header.length; i++) {
+            map.put(header[i], values.get(i));
+        }
+        return map;
+    }
+
+    /**
+     * 読み込んだレコード数を取得する。
+     *
+     * @return レコード数（ヘッダを含む）
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 入力を閉じる。
+     */
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. file=[" + source + "]", e);
+        }
+    }
+
+    /**
+     * 1レコード分の値を{@link #values}に読み込む。
+     *
+     * @return レコードを読み込んだ場合、真（入力の終端に達した場合は偽）
+     */
+    private boolean readRecord() {
+        values.clear();
+        try {
+            int c = skipEmptyLines();
+            if (c == EOF) {
+                return false;
+            }
+            recordLineNumber = lineNumber;
+            while (true) {
+                c = (c == QUOTE) ? readQuoted() : readUnquoted();
+                if (c == SEPARATOR) {
+                    c = peek();
+                    continue;
+                }
+                if (c == '\r') {
+                    if (peek() == '\n') {
+                        pos++;
+                    }
+                    lineNumber++;
+                } else if (c == '\n') {
+                    lineNumber++;
+                }
+                recordCount++;
+                return true;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. file=[" + source + "]", e);
+        }
+    }
+
+    /**
+     * 空行を読み飛ばす。
+     *
+     * @return 次の文字（読み込み位置は進めない。入力の終端に達した場合は{@link #EOF}）
+     * @throws IOException 入出力例外
+     */
+    private int skipEmptyLines() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == '\n') {
+                pos++;
+                lineNumber++;
+            } else if (c == '\r') {
+                pos++;
+                if (peek() == '\n') {
+                    pos++;
+                }
+                lineNumber++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * 引用符で囲まれていない値を読み込む。
+     *
+     * @return 値の直後の文字（区切り文字・改行文字、または{@link #EOF}。読み込み位置は文字の次に進む）
+     * @throws IOException 入出力例外
+     */
+    private int readUnquoted() throws IOException {
+        field.setLength(0);
+        boolean spanned = false;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == SEPARATOR || c == '\r' || c == '\n') {
+                    if (spanned) {
+                        field.append(buf, start, pos - start);
+                        values.add(field.toString());
+                    } else {
+                        values.add(new String(buf, start, pos - start));
+                    }
+                    pos++;
+                    return c;
+                }
+                pos++;
+            }
+            // バッファの終端に達したため、読み込み済みの部分を退避する。
+            field.append(buf, start, pos - start);
+            spanned = true;
+            if (!fill()) {
+                values.add(field.toString());
+                return EOF;
+            }
+        }
+    }
+
+    /**
+     * 引用符で囲まれた値を読み込む。
+     *
+     * @return 値の直後の文字（区切り文字・改行文字、または{@link #EOF}。読み込み位置は文字の次に進む）
+     * @throws IOException 入出力例外
+     */
+    private int readQuoted() throws IOException {
+        field.setLength(0);
+        pos++;   // 開始の引用符
+        long startLine = lineNumber;
+        boolean afterCr = false;
+        while (true) {
+            int start = pos;
+            while (pos < limit && buf[pos] != QUOTE) {
+                char c = buf[pos];
+                if (c == '\r' || (c == '\n' && !afterCr)) {
+                    lineNumber++;
+                }
+                afterCr = (c == '\r');
+                pos++;
+            }
+            field.append(buf, start, pos - start);
+            if (pos == limit) {
+                if (!fill()) {
+                    throw formatError("unterminated quoted field.", startLine);
+                }
+                continue;
+            }
+            pos++;   // 引用符
+            int next = peek();
+            if (next == QUOTE) {
+                // 2つ重ねた引用符は、引用符1つを表す。
+                field.append(QUOTE);
+                pos++;
+                afterCr = false;
+                continue;
+            }
+            values.add(field.toString());
+            if (next == SEPARATOR || next == '\r' || next == '\n') {
+                pos++;
+                return next;
+            }
+            if (next == EOF) {
+                return EOF;
+            }
+            throw formatError("unexpected character after closing quote. character=[" + (char) next + "]",
+                              lineNumber);
+        }
+    }
+
+    /**
+     * 次の文字を、読み込み位置を進めずに取得する。
+     *
+     * @return 次の文字（入力の終端に達した場合は{@link #EOF}）
+     * @throws IOException 入出力例外
+     */
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return EOF;
+        }
+        return buf[pos];
+    }
+
+    /**
+     * 文字バッファに入力を読み込む。
+     *
+     * @return 1文字以上読み込んだ場合、真（入力の終端に達した場合は偽）
+     * @throws IOException 入出力例外
+     */
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buf, 0, buf.length);
+        } while (read == 0);
+        pos = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /**
+     * CSVの形式が不正であることを表す例外を生成する。
+     *
+     * @param message    メッセージ
+     * @param lineNumber 不正な箇所の行番号
+     * @return 例外
+     */
+    private RuntimeException formatError(String message, long lineNumber) {
+        return new IllegalStateException(
+                "invalid CSV format. " + message + " file=[" + source + "] line=[" + lineNumber + "]");
+    }
+}
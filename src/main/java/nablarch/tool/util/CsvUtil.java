@@ -1,16 +1,10 @@
 package nablarch.tool.util;
 
-import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
-import nablarch.core.util.FileUtil;
-
 /**
  * CSV形式のデータに関するユーティリティクラス
  * 
@@ -27,7 +21,11 @@ public final class CsvUtil {
      * 変換の仕様は以下の通り<br />
      * 先頭行：List内の先頭のMapのキー値の一覧(Mapへの登録順)<br />
      * 2行目以降：Mapの値（要素の順番はキー値の順番に準拠）<br />
+     * 値はRFC 4180に従い、必要な場合のみ引用符で囲む（{@link CsvQuoteMode#MINIMAL}）。
+     * Mapに含まれないカラムの値は空文字として出力する。<br />
      * inputDataに空のリストが渡された際は、空のCSVファイルが生成される。<br />
+     * 行数が多い場合は、データ全体をメモリ上に保持せずに出力できる{@link CsvWriter}を使用すること。<br />
+     * 変換処理を複数のスレッドで行う場合は{@link ParallelCsvExporter}を使用すること。<br />
      * 
      * @param inputData 変換する{@literal List<Map<String, String>>}型のデータ
      * @param outputFilePath 出力先のファイルパス
@@ -35,68 +33,88 @@ public final class CsvUtil {
      * @param lineSeparator 改行コード
      */
     public static void writeFile(List<Map<String, String>> inputData, String outputFilePath, String charset, String lineSeparator) {
+        writeFile(inputData, outputFilePath, charset, lineSeparator, CsvQuoteMode.MINIMAL);
+    }
 
-        FileOutputStream outputStream = null;
-        BufferedWriter writer = null;
-
+    /**
+     * {@literal List<Map<String, String>>}構造のデータをCSV形式の文字列に変換し、ファイルに出力する。
+     * 値を引用符で囲む条件を指定できる点を除き、{@link #writeFile(List, String, String, String)}と同じである。
+     *
+     * @param inputData 変換する{@literal List<Map<String, String>>}型のデータ
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset 文字コード
+     * @param lineSeparator 改行コード
+     * @param quoteMode 値を引用符で囲む条件
+     */
+    public static void writeFile(List<Map<String, String>> inputData, String outputFilePath, String charset,
+                                 String lineSeparator, CsvQuoteMode quoteMode) {
+        CsvWriter writer = new CsvWriter(outputFilePath, charset, lineSeparator).setQuoteMode(quoteMode);
         try {
-            outputStream = new FileOutputStream(outputFilePath);
-            writer = new BufferedWriter(new OutputStreamWriter(outputStream, charset));
-
-            String[] columnNameArray = new String[0];
-
-            if (!inputData.isEmpty()) {
-                columnNameArray = inputData.get(0).keySet().toArray(columnNameArray);
-
-                writeHeader(columnNameArray, writer);
-                writer.write(lineSeparator);
-
-                for (Map<String, String> rowData : inputData) {
-                    writeRowData(rowData, columnNameArray, writer);
-                    writer.write(lineSeparator);
-                }
+            for (Map<String, String> rowData : inputData) {
+                writer.writeRow(rowData);
+            }
+        } catch (RuntimeException e) {
+            try {
+                writer.close();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
             }
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("this encoding is not supported. encoding=[" + charset + "]", e);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("FileNotFoundException occurred. FilePath=[" + outputFilePath + "]", e);
-        } catch (IOException e) {
-            //ディスク障害やディスクフル等で入力ができなかった場合に発生する。
-            throw new RuntimeException("IOException occurred. file=[" + outputFilePath + "]", e);
-        } finally {
-            FileUtil.closeQuietly(writer, outputStream);
+            throw e;
         }
-        return;
+        writer.close();
     }
 
     /**
-     * CSVのヘッダー部分を出力する
-     * @param columnNameArray カラム名の配列
-     * @param writer 書き込むwriterオブジェクト
-     * @throws IOException 出力に失敗した際に発生する。
+     * CSVの1フィールドを出力する。
+     * <p/>
+     * 値は先頭から1度だけ走査し、中間の文字列を生成せずに出力先へ直接書き込む。
+     * 引用符で囲む場合、値に含まれる引用符は2つ重ねて出力する（RFC 4180）。
+     *
+     * @param out       出力先
+     * @param value     値（nullでないこと）
+     * @param quoteMode 値を引用符で囲む条件
+     * @throws IOException 入出力例外
      */
-    private static void writeHeader(String[] columnNameArray, BufferedWriter writer) throws IOException{
-        for (int i = 0; i < columnNameArray.length; i++) {
-            writer.write(columnNameArray[i]);
-            if (i < columnNameArray.length - 1) {
-                writer.write(",");
+    static void writeField(Writer out, String value, CsvQuoteMode quoteMode) throws IOException {
+        int length = value.length();
+        int start = 0;
+        int i = 0;
+        switch (quoteMode) {
+            case NONE:
+                out.write(value);
+                return;
+            case MINIMAL:
+                // 引用符で囲む必要がある最初の文字を探す。
+                while (i < length && !needsQuote(value.charAt(i))) {
+                    i++;
+                }
+                if (i == length) {
+                    out.write(value);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        out.write('"');
+        for (; i < length; i++) {
+            if (value.charAt(i) == '"') {
+                // 引用符自身までを書き込み、次の区間の先頭で引用符をもう1つ出力する。
+                out.write(value, start, i - start + 1);
+                start = i;
             }
         }
+        out.write(value, start, length - start);
+        out.write('"');
     }
 
     /**
-     * CSVのデータ部を一行出力する。
-     * @param rowData 出力する一行分のデータ
-     * @param columnNameArray 出力するカラム名の配列
-     * @param writer 書き込むwriterオブジェクト
-     * @throws IOException 出力に失敗した際に発生する。
+     * 値を引用符で囲む必要がある文字か判定する。
+     *
+     * @param c 文字
+     * @return 区切り文字・引用符・改行文字の場合、真
      */
-    private static void writeRowData(Map<String, String> rowData, String[] columnNameArray, BufferedWriter writer) throws IOException{
-        for (int i = 0; i < columnNameArray.length; i++) {
-            writer.write(rowData.get(columnNameArray[i]));
-            if (i < columnNameArray.length - 1) {
-                writer.write(",");
-            }
-        }
+    private static boolean needsQuote(char c) {
+        return c == ',' || c == '"' || c == '\r' || c == '\n';
     }
 }
@@ -0,0 +1,325 @@
+package nablarch.tool.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * CSV形式のデータを1行ずつ出力するクラス。
+ * <p/>
+ * {@link CsvUtil#writeFile}と異なり、出力するデータ全体をメモリ上に保持する必要がない。
+ * 出力内容はバッファリングされ、バッファが満杯になった時点、{@link #flush()}の呼び出し時、
+ * または{@link #close()}の呼び出し時に出力先へ書き込まれる。
+ * <p/>
+ * 出力形式は{@link CsvUtil#writeFile}と同じである。
+ * 先頭行にヘッダ（カラム名の一覧）を出力し、以降の行にデータを出力する。
+ * ヘッダは{@link #writeHeader(String...)}で明示的に指定するか、
+ * 最初に{@link #writeRow(Map)}で出力したMapのキー値の一覧（Mapへの登録順）となる。
+ * <p/>
+ * 値はRFC 4180に従ってエンコードする。引用符で囲む条件は{@link #setQuoteMode(CsvQuoteMode)}で指定できる
+ * （デフォルトは{@link CsvQuoteMode#MINIMAL}）。
+ * 値がnullの場合は{@link #setNullValue(String)}で指定した文字列（デフォルトは空文字）を、
+ * 引用符で囲まずに出力する。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ * 使用後は必ず{@link #close()}を呼び出すこと。
+ */
+public class CsvWriter implements Closeable {
+
+    /** デフォルトのバッファサイズ（文字数） */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** 区切り文字 */
+    private static final char SEPARATOR = ',';
+
+    /** 出力先 */
+    private final Writer writer;
+
+    /** 改行コード */
+    private final String lineSeparator;
+
+    /** 出力先の名称（例外メッセージに使用する） */
+    private final String target;
+
+    /** 値を引用符で囲む条件 */
+    private CsvQuoteMode quoteMode = CsvQuoteMode.MINIMAL;
+
+    /** 値がnullの場合に出力する文字列（nullの場合は例外とする） */
+    private String nullValue = "";
+
+    /** ヘッダ（未出力の場合はnull） */
+    private String[] header;
+
+    /** 出力したデータ行数 */
+    private long rowCount = 0;
+
+    /**
+     * コンストラクタ。
+     * バッファサイズには{@link #DEFAULT_BUFFER_SIZE}を使用する。
+     *
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset        文字コード
+     * @param lineSeparator  改行コード
+     */
+    public CsvWriter(String outputFilePath, String charset, String lineSeparator) {
+        this(outputFilePath, charset, lineSeparator, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset        文字コード
+     * @param lineSeparator  改行コード
+     * @param bufferSize     バッファサイズ（文字数）
+     */
+    public CsvWriter(String outputFilePath, String charset, String lineSeparator, int bufferSize) {
+        this(open(outputFilePath, charset, bufferSize), lineSeparator, outputFilePath);
+    }
+
+    /**
+     * コンストラクタ。
+     * 与えられたライターをバッファリングせずにそのまま使用する。
+     *
+     * @param writer        出力先
+     * @param lineSeparator 改行コード
+     */
+    public CsvWriter(Writer writer, String lineSeparator) {
+        this(Arg.notNull(writer, "writer"), lineSeparator, writer.toString());
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param writer        出力先
+     * @param lineSeparator 改行コード
+     * @param target        出力先の名称
+     */
+    private CsvWriter(Writer writer, String lineSeparator, String target) {
+        this.writer = writer;
+        this.lineSeparator = Arg.notNull(lineSeparator, "lineSeparator");
+        this.target = target;
+    }
+
+    /**
+     * 出力先のファイルを開く。
+     *
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset        文字コード
+     * @param bufferSize     バッファサイズ（文字数）
+     * @return ライター
+     */
+    private static Writer open(String outputFilePath, String charset, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive. bufferSize=[" + bufferSize + "]");
+        }
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(outputFilePath);
+            return new BufferedWriter(new OutputStreamWriter(outputStream, charset), bufferSize);
+        } catch (UnsupportedEncodingException e) {
+            FileUtil.closeQuietly(outputStream);
+            throw new RuntimeException("this encoding is not supported. encoding=[" + charset + "]", e);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("FileNotFoundException occurred. FilePath=[" + outputFilePath + "]", e);
+        }
+    }
+
+    /**
+     * 値を引用符で囲む条件を設定する。
+     *
+     * @param quoteMode 値を引用符で囲む条件
+     * @return 本インスタンス自身
+     */
+    public CsvWriter setQuoteMode(CsvQuoteMode quoteMode) {
+        this.quoteMode = Arg.notNull(quoteMode, "quoteMode");
+        return this;
+    }
+
+    /**
+     * 値がnullの場合に出力する文字列を設定する。
+     * 設定した文字列はエンコードせず、そのまま出力する。
+     * このため、{@link CsvQuoteMode#ALL}の場合でも、nullと空文字を区別できる。
+     * <p/>
+     * nullを設定した場合、値がnullであれば{@link IllegalArgumentException}を送出する。
+     *
+     * @param nullValue 値がnullの場合に出力する文字列
+     * @return 本インスタンス自身
+     */
+    public CsvWriter setNullValue(String nullValue) {
+        this.nullValue = nullValue;
+        return this;
+    }
+
+    /**
+     * ヘッダを出力する。
+     * 以降の{@link #writeRow(String...)}では、ヘッダと同じ数の値を指定しなければならない。
+     *
+     * @param columnNames カラム名
+     * @return 本インスタンス自身
+     * @throws IllegalStateException 既にヘッダを出力している場合
+     */
+    public CsvWriter writeHeader(String... columnNames) throws IllegalStateException {
+        if (header != null) {
+            throw new IllegalStateException("header has already been written. header=" + Arrays.toString(header));
+        }
+        header = columnNames.clone();
+        writeLine(header);
+        return this;
+    }
+
+    /**
+     * ヘッダを出力せずに、以降の出力で使用するヘッダを設定する。
+     * ヘッダを別の出力先へ出力済みの場合（分割出力の2つ目以降の出力先など）に使用する。
+     *
+     * @param columnNames カラム名
+     * @return 本インスタンス自身
+     */
+    CsvWriter useHeader(String[] columnNames) {
+        header = columnNames.clone();
+        return this;
+    }
+
+    /**
+     * データ行を出力する。
+     *
+     * @param values 値（ヘッダのカラム順）
+     * @return 本インスタンス自身
+     * @throws IllegalStateException    ヘッダを出力していない場合
+     * @throws IllegalArgumentException 値の数がヘッダのカラム数と一致しない場合
+     */
+    public CsvWriter writeRow(String... values) throws IllegalStateException, IllegalArgumentException {
+        if (header == null) {
+            throw new IllegalStateException("header must be written before rows.");
+        }
+        if (values.length != header.length) {
+            throw new IllegalArgumentException(
+                    "number of values must be " + header.length + "."
+                            + " values=" + Arrays.toString(values) + " header=" + Arrays.toString(header));
+        }
+        writeLine(values);
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * データ行を出力する。
+     * ヘッダを出力していない場合は、Mapのキー値の一覧（Mapへの登録順）をヘッダとして出力する。
+     * Mapに含まれないカラムの値はnullとして扱う。
+     *
+     * @param row 行データ（キーはカラム名）
+     * @return 本インスタンス自身
+     */
+    public CsvWriter writeRow(Map<String, String> row) {
+        if (header == null) {
+            writeHeader(row.keySet().toArray(new String[row.size()]));
+        }
+        try {
+            for (int i = 0; i < header.length; i++) {
+                if (i > 0) {
+                    writer.write(SEPARATOR);
+                }
+                writeValue(row.get(header[i]), i, header.length);
+            }
+            writer.write(lineSeparator);
+        } catch (IOException e) {
+            throw ioException(e);
+        }
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * 出力したデータ行数を取得する。
+     *
+     * @return データ行数（ヘッダ行を含まない）
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * バッファリングされている内容を出力先へ書き込む。
+     */
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw ioException(e);
+        }
+    }
+
+    /**
+     * バッファリングされている内容を出力先へ書き込み、出力先を閉じる。
+     */
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw ioException(e);
+        }
+    }
+
+    /**
+     * 1行分の値を出力する。
+     *
+     * @param values 値
+     */
+    private void writeLine(String[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(SEPARATOR);
+                }
+                writeValue(values[i], i, values.length);
+            }
+            writer.write(lineSeparator);
+        } catch (IOException e) {
+            throw ioException(e);
+        }
+    }
+
+    /**
+     * 値を1つ出力する。
+     *
+     * @param value       値
+     * @param index       カラムの位置（0オリジン）
+     * @param columnCount 行のカラム数
+     * @throws IOException 入出力例外
+     */
+    private void writeValue(String value, int index, int columnCount) throws IOException {
+        String text = (value != null) ? value : nullValue;
+        if (columnCount == 1 && quoteMode == CsvQuoteMode.MINIMAL && text != null && text.isEmpty()) {
+            // 空行は読み込み時に読み飛ばされるため、1カラムの空文字は引用符で囲んで出力する。
+            writer.write("\"\"");
+        } else if (value != null) {
+            CsvUtil.writeField(writer, value, quoteMode);
+        } else if (nullValue != null) {
+            writer.write(nullValue);
+        } else {
+            throw new IllegalArgumentException(
+                    "value must not be null. row=[" + (rowCount + 1) + "]"
+                            + " column=[" + (header == null ? String.valueOf(index) : header[index]) + "]");
+        }
+    }
+
+    /**
+     * 入出力例外を実行時例外に変換する。
+     *
+     * @param e 入出力例外
+     * @return 実行時例外
+     */
+    private RuntimeException ioException(IOException e) {
+        //ディスク障害やディスクフル等で入力ができなかった場合に発生する。
+        return new RuntimeException("IOException occurred. file=[" + target + "]", e);
+    }
+}
@@ -0,0 +1,164 @@
+package nablarch.tool.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * ファイルをメモリマップし、逐次デコードしながら読み込む{@link Reader}。
+ * <p/>
+ * ファイルは{@link #WINDOW_SIZE}ごとの領域に分けてマップするため、
+ * 2GBを超えるファイルも読み込むことができる。
+ * ファイルの内容はヒープにコピーされず、デコード結果のみが呼び出し元のバッファに書き込まれる。
+ * <p/>
+ * 不正なバイト列は、{@link String#String(byte[], String)}と同様に置換文字に置き換えられる。
+ * 本クラスはスレッドセーフではない。
+ */
+final class MappedFileReader extends Reader {
+
+    /** 一度にマップする領域の最大サイズ（バイト） */
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /** ファイル */
+    private final RandomAccessFile file;
+
+    /** ファイルのチャネル */
+    private final FileChannel channel;
+
+    /** ファイルサイズ */
+    private final long size;
+
+    /** デコーダ */
+    private final CharsetDecoder decoder;
+
+    /** 一度にマップする領域のサイズ */
+    private final long windowSize;
+
+    /** マップ中の領域（未マップの場合はnull） */
+    private MappedByteBuffer window;
+
+    /** マップ中の領域の、ファイル先頭からの位置 */
+    private long windowStart = 0;
+
+    /** デコードが完了したか */
+    private boolean finished = false;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file    ファイル
+     * @param charset 文字コード
+     * @throws IOException ファイルを開けない場合
+     */
+    MappedFileReader(File file, Charset charset) throws IOException {
+        this(file, charset, WINDOW_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file       ファイル
+     * @param charset    文字コード
+     * @param windowSize 一度にマップする領域のサイズ（バイト）
+     * @throws IOException ファイルを開けない場合
+     */
+    MappedFileReader(File file, Charset charset, long windowSize) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.decoder = charset.newDecoder()
+                              .onMalformedInput(CodingErrorAction.REPLACE)
+                              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * ファイルサイズを取得する。
+     *
+     * @return ファイルサイズ（バイト）
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 1バイトあたりの平均文字数を取得する。
+     * デコード結果の文字数の見積もりに使用する。
+     *
+     * @return 1バイトあたりの平均文字数
+     * @see CharsetDecoder#averageCharsPerByte()
+     */
+    float averageCharsPerByte() {
+        return decoder.averageCharsPerByte();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (finished) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (true) {
+            if (window == null) {
+                map(0, windowSize);
+            }
+            boolean last = windowStart + window.limit() >= size;
+            CoderResult result = decoder.decode(window, out, last);
+            if (result.isOverflow()) {
+                break;   // 呼び出し元のバッファが満杯
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (!last) {
+                // 領域の終端（文字の途中を含む）に達したため、未処理のバイトから次の領域をマップする。
+                // 1文字もデコードできなかった場合は、より大きな領域をマップする。
+                int consumed = window.position();
+                map(windowStart + consumed, (consumed == 0) ? window.limit() * 2L : windowSize);
+                if (out.position() > off) {
+                    break;
+                }
+                continue;
+            }
+            if (decoder.flush(out).isOverflow()) {
+                break;
+            }
+            finished = true;
+            break;
+        }
+        int read = out.position() - off;
+        return (read == 0 && finished) ? -1 : read;
+    }
+
+    /**
+     * 指定した位置から領域をマップする。
+     *
+     * @param position ファイル先頭からの位置
+     * @param length   マップするサイズ（ファイル終端を超える場合は終端まで）
+     * @throws IOException 入出力例外
+     */
+    private void map(long position, long length) throws IOException {
+        long mapped = Math.min(length, size - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, mapped);
+        windowStart = position;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        file.close();
+    }
+}
@@ -0,0 +1,382 @@
+package nablarch.tool.util;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+
+/**
+ * {@literal List<Map<String, String>>}構造のデータを、複数のスレッドでCSV形式に変換してファイルに出力するクラス。
+ * <p/>
+ * 出力形式は{@link CsvUtil#writeFile}と同じである（出力されるファイルはバイト単位で一致する）。
+ * 入力データを{@link #setChunkSize(int)}で指定した行数ごとのチャンクに分割し、
+ * チャンクごとにCSV形式への変換と文字コードのエンコードを並行して行う。
+ * エンコード済みのチャンクは入力データの順に、{@link FileChannel}のギャザリング書き込みで出力する。
+ * <p/>
+ * 同時に保持するチャンクの数は、{@link #setParallelism(int)}で指定した並列度の2倍までに制限される。
+ * このため、ヒープ使用量は入力データのサイズではなく、チャンクサイズと並列度に比例する。
+ * <p/>
+ * バイト順マーク（BOM）を出力する文字コード（UTF-16など）はチャンクごとにエンコードできないため、
+ * {@link CsvUtil#writeFile}と同じく1スレッドで出力する。
+ * <p/>
+ * 入力データのMapは、出力中に複数のスレッドから参照される。
+ * 出力中に入力データを変更してはならない。
+ */
+public class ParallelCsvExporter {
+
+    /** デフォルトのチャンクサイズ（行数） */
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    /** チャンクサイズ（行数） */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /** 並列度 */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** チャンクの変換に使用する{@link Executor}（未設定の場合はnull） */
+    private Executor executor;
+
+    /** 値を引用符で囲む条件 */
+    private CsvQuoteMode quoteMode = CsvQuoteMode.MINIMAL;
+
+    /**
+     * チャンクサイズを設定する。
+     * （デフォルトは{@link #DEFAULT_CHUNK_SIZE}）
+     *
+     * @param chunkSize チャンクサイズ（行数）
+     * @return 本インスタンス自身
+     */
+    public ParallelCsvExporter setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive. chunkSize=[" + chunkSize + "]");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 並列度（同時に変換するチャンクの最大数）を設定する。
+     * （デフォルトは利用可能なプロセッサ数）
+     *
+     * @param parallelism 並列度
+     * @return 本インスタンス自身
+     */
+    public ParallelCsvExporter setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive. parallelism=[" + parallelism + "]");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * チャンクの変換に使用する{@link Executor}を設定する。
+     * 設定しない場合は{@link ForkJoinPool#commonPool()}を使用する。
+     *
+     * @param executor チャンクの変換に使用する{@link Executor}
+     * @return 本インスタンス自身
+     */
+    public ParallelCsvExporter setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 値を引用符で囲む条件を設定する。
+     * （デフォルトは{@link CsvQuoteMode#MINIMAL}）
+     *
+     * @param quoteMode 値を引用符で囲む条件
+     * @return 本インスタンス自身
+     */
+    public ParallelCsvExporter setQuoteMode(CsvQuoteMode quoteMode) {
+        this.quoteMode = Arg.notNull(quoteMode, "quoteMode");
+        return this;
+    }
+
+    /**
+     * データをCSV形式に変換し、ファイルに出力する。
+     * 変換の仕様は{@link CsvUtil#writeFile(List, String, String, String)}と同じである。
+     *
+     * @param inputData      変換する{@literal List<Map<String, String>>}型のデータ
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset        文字コード
+     * @param lineSeparator  改行コード
+     * @throws RuntimeException 変換または出力に失敗した場合
+     */
+    public void export(List<Map<String, String>> inputData, String outputFilePath, String charset,
+                       String lineSeparator) throws RuntimeException {
+        Charset cs = toCharset(charset);
+        if (hasByteOrderMark(cs)) {
+            CsvUtil.writeFile(inputData, outputFilePath, charset, lineSeparator, quoteMode);
+            return;
+        }
+        FileChannel channel = open(outputFilePath);
+        try {
+            write(channel, inputData, outputFilePath, cs, Arg.notNull(lineSeparator, "lineSeparator"));
+        } catch (RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. file=[" + outputFilePath + "]", e);
+        }
+    }
+
+    /**
+     * チャンクを並行して変換し、入力データの順に出力する。
+     *
+     * @param channel        出力先
+     * @param inputData      変換するデータ
+     * @param outputFilePath 出力先のファイルパス
+     * @param charset        文字コード
+     * @param lineSeparator  改行コード
+     */
+    private void write(FileChannel channel, List<Map<String, String>> inputData, String outputFilePath,
+                       Charset charset, String lineSeparator) {
+        if (inputData.isEmpty()) {
+            return;
+        }
+        Map<String, String> first = inputData.get(0);
+        String[] header = first.keySet().toArray(new String[first.size()]);
+        Executor exec = (executor == null) ? ForkJoinPool.commonPool() : executor;
+        int size = inputData.size();
+        int maxInFlight = parallelism * 2;
+        Deque<FutureTask<ByteBuffer>> inFlight = new ArrayDeque<FutureTask<ByteBuffer>>(maxInFlight);
+        List<ByteBuffer> ready = new ArrayList<ByteBuffer>(maxInFlight);
+        int next = 0;
+        try {
+            while (next < size || !inFlight.isEmpty()) {
+                while (next < size && inFlight.size() < maxInFlight) {
+                    int end = (int) Math.min((long) next + chunkSize, size);
+                    FutureTask<ByteBuffer> task = new FutureTask<ByteBuffer>(
+                            new ChunkEncoder(inputData, next, end, header, charset, lineSeparator));
+                    inFlight.add(task);
+                    exec.execute(task);
+                    next = end;
+                }
+                // 先頭のチャンクの完了を待ち、続けて完了しているチャンクをまとめて書き込む。
+                ready.clear();
+                do {
+                    ready.add(inFlight.poll().get());
+                } while (!inFlight.isEmpty() && inFlight.peek().isDone());
+                writeFully(channel, ready.toArray(new ByteBuffer[ready.size()]));
+            }
+        } catch (ExecutionException e) {
+            cancel(inFlight);
+            throw new RuntimeException("failed to convert rows to CSV. file=[" + outputFilePath + "]", e.getCause());
+        } catch (InterruptedException e) {
+            cancel(inFlight);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while writing CSV. file=[" + outputFilePath + "]", e);
+        } catch (IOException e) {
+            cancel(inFlight);
+            //ディスク障害やディスクフル等で出力ができなかった場合に発生する。
+            throw new RuntimeException("IOException occurred. file=[" + outputFilePath + "]", e);
+        } catch (RuntimeException e) {
+            cancel(inFlight);
+            throw e;
+        }
+    }
+
+    /**
+     * 全てのバッファの内容を書き込む。
+     *
+     * @param channel 出力先
+     * @param buffers バッファ
+     * @throws IOException 入出力例外
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        int offset = 0;
+        while (remaining > 0) {
+            while (!buffers[offset].hasRemaining()) {
+                offset++;
+            }
+            remaining -= channel.write(buffers, offset, buffers.length - offset);
+        }
+    }
+
+    /**
+     * 未完了のチャンクの変換を取り消す。
+     *
+     * @param tasks チャンクの変換
+     */
+    private static void cancel(Deque<FutureTask<ByteBuffer>> tasks) {
+        for (FutureTask<ByteBuffer> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * 出力先のファイルを開く。
+     *
+     * @param outputFilePath 出力先のファイルパス
+     * @return 出力先
+     */
+    private static FileChannel open(String outputFilePath) {
+        try {
+            return new FileOutputStream(outputFilePath).getChannel();
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("FileNotFoundException occurred. FilePath=[" + outputFilePath + "]", e);
+        }
+    }
+
+    /**
+     * 文字コード名を{@link Charset}に変換する。
+     *
+     * @param charset 文字コード名
+     * @return 文字コード
+     */
+    private static Charset toCharset(String charset) {
+        try {
+            return Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("this encoding is not supported. encoding=[" + charset + "]", e);
+        }
+    }
+
+    /**
+     * 文字コードがエンコード結果の先頭にバイト順マークを出力するか判定する。
+     *
+     * @param charset 文字コード
+     * @return バイト順マークを出力する場合、真
+     */
+    private static boolean hasByteOrderMark(Charset charset) {
+        return "aa".getBytes(charset).length != "a".getBytes(charset).length * 2;
+    }
+
+    /**
+     * 1チャンク分の行をCSV形式に変換し、エンコードするクラス。
+     */
+    private final class ChunkEncoder implements Callable<ByteBuffer> {
+
+        /** 変換するデータ */
+        private final List<Map<String, String>> inputData;
+
+        /** チャンクの開始位置 */
+        private final int from;
+
+        /** チャンクの終了位置（この位置を含まない） */
+        private final int to;
+
+        /** ヘッダ */
+        private final String[] header;
+
+        /** 文字コード */
+        private final Charset charset;
+
+        /** 改行コード */
+        private final String lineSeparator;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param inputData     変換するデータ
+         * @param from          チャンクの開始位置
+         * @param to            チャンクの終了位置（この位置を含まない）
+         * @param header        ヘッダ
+         * @param charset       文字コード
+         * @param lineSeparator 改行コード
+         */
+        private ChunkEncoder(List<Map<String, String>> inputData, int from, int to, String[] header,
+                             Charset charset, String lineSeparator) {
+            this.inputData = inputData;
+            this.from = from;
+            this.to = to;
+            this.header = header;
+            this.charset = charset;
+            this.lineSeparator = lineSeparator;
+        }
+
+        /** {@inheritDoc} */
+        public ByteBuffer call() throws CharacterCodingException {
+            StringBuilder chars = new StringBuilder();
+            CsvWriter writer = new CsvWriter(new StringBuilderWriter(chars), lineSeparator).setQuoteMode(quoteMode);
+            if (from == 0) {
+                writer.writeHeader(header);
+            } else {
+                writer.useHeader(header);
+            }
+            for (int i = from; i < to; i++) {
+                writer.writeRow(inputData.get(i));
+            }
+            // OutputStreamWriterと同じく、エンコードできない文字は置換文字に置き換える。
+            return charset.newEncoder()
+                          .onMalformedInput(CodingErrorAction.REPLACE)
+                          .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                          .encode(CharBuffer.wrap(chars));
+        }
+    }
+
+    /**
+     * {@link StringBuilder}に出力する{@link Writer}。
+     * {@link java.io.StringWriter}と異なり、同期化を行わない。
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        /** 出力先 */
+        private final StringBuilder out;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param out 出力先
+         */
+        private StringBuilderWriter(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int c) {
+            out.append((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            out.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            out.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(String str) {
+            out.append(str);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
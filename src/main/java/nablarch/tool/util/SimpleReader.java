@@ -1,5 +1,6 @@
 package nablarch.tool.util;
 
+import java.io.BufferedReader;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
@@ -7,6 +8,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import nablarch.core.util.FileUtil;
 
@@ -18,6 +22,9 @@ import nablarch.core.util.FileUtil;
  */
 public final class SimpleReader {
 
+    /** 配列の最大長（VMによっては、Integer.MAX_VALUEちょうどの配列を確保できない） */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
     /** 隠蔽コンストラクタ */
     private SimpleReader() {
     }
@@ -42,6 +49,8 @@ public final class SimpleReader {
      * ファイルの内容を文字列に変換する。
      * 実行速度優先で作成したため、
      * 大きくないファイル（高々数メガ程度）で使用すること。
+     * 大きなファイルは{@link #fileToCharSequence(File, String)}
+     * または{@link #readLines(File, String, LineHandler)}で読み込むこと。
      * 
      * @param file ファイル
      * @param charset 読み込むファイルのエンコーディング
@@ -54,6 +63,10 @@ public final class SimpleReader {
         try {
             inputStream = new DataInputStream(new FileInputStream(file));
 
+            if (file.length() > MAX_ARRAY_LENGTH) {
+                throw new RuntimeException("file is too large to be read as a String."
+                        + " file=[" + file.getAbsolutePath() + "] size=[" + file.length() + "]");
+            }
             byte[] buffer = new byte[(int) file.length()];
             inputStream.readFully(buffer);
             fileContent = new String(buffer, charset);
@@ -74,4 +87,133 @@ public final class SimpleReader {
         return fileContent;
     }
 
+    /**
+     * ファイルの内容を{@link CharSequence}として読み込む。
+     * <p/>
+     * ファイルをメモリマップし、逐次デコードした結果を1つの文字配列に格納する。
+     * {@link #fileToString(File, String)}と異なりファイルサイズ分のバイト配列は確保しないが、
+     * ファイル全体をデコードしてヒープに保持するため、ヒープ使用量はファイルサイズに比例する。
+     * <p/>
+     * デコード中は、ファイルのバイト数に{@link java.nio.charset.CharsetDecoder#averageCharsPerByte()}を掛けた
+     * 文字数の配列を確保する（UTF-8の場合はバイト数と同じ文字数となり、ファイルサイズの2倍のヒープを使用する）。
+     * マルチバイト文字が多く、実際の文字数が見積もりの4分の3に満たない場合は、
+     * 実際の文字数の配列へ切り詰める（切り詰める間は、一時的に両方の配列を保持する）。
+     * このため、戻り値が保持する配列は実際の文字数の3分の4倍以下となる。
+     * <p/>
+     * ヒープに収まらない大きなファイルや、文字数が{@link Integer#MAX_VALUE}に近いファイルは読み込めないため、
+     * {@link #readLines(File, String, LineHandler)}を使用すること。
+     * <p/>
+     * 不正なバイト列は、{@link #fileToString(File, String)}と同様に置換文字に置き換えられる。
+     * 戻り値は読み取り専用であり、{@link CharSequence#toString()}で文字列に変換できる。
+     *
+     * @param file    ファイル
+     * @param charset 読み込むファイルのエンコーディング
+     * @return ファイルの内容
+     */
+    public static CharSequence fileToCharSequence(File file, String charset) {
+        MappedFileReader reader = openMapped(file, charset);
+        try {
+            char[] chars = new char[estimateLength(reader.size(), reader.averageCharsPerByte())];
+            int length = 0;
+            while (true) {
+                if (length == chars.length) {
+                    if (length == MAX_ARRAY_LENGTH) {
+                        if (reader.read() == -1) {
+                            break;
+                        }
+                        throw new RuntimeException("file is too large to be read as a CharSequence."
+                                + " file=[" + file.getAbsolutePath() + "] size=[" + reader.size() + "]");
+                    }
+                    chars = Arrays.copyOf(chars, (int) Math.min(Math.max(length * 2L, 16L), MAX_ARRAY_LENGTH));
+                }
+                int read = reader.read(chars, length, chars.length - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+            if (chars.length - length > chars.length / 4) {
+                // 見積もりが実際の文字数を大きく上回った場合は、未使用の領域を保持し続けないよう切り詰める。
+                chars = Arrays.copyOf(chars, length);
+            }
+            return CharBuffer.wrap(chars, 0, length).asReadOnlyBuffer();
+        } catch (IOException e) {
+            //ディスク障害等で読み込みができなかった場合に発生する。
+            throw new RuntimeException("IOException occurred. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            FileUtil.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * ファイルの内容を1行ずつ読み込む。
+     * <p/>
+     * ファイルをメモリマップして逐次デコードするため、ファイルサイズによらず一定のヒープで読み込むことができる。
+     * 2GBを超えるファイルも読み込むことができる。
+     * 行の区切りは{@link BufferedReader#readLine()}と同じく、LF・CR・CRLFのいずれかとする。
+     *
+     * @param file    ファイル
+     * @param charset 読み込むファイルのエンコーディング
+     * @param handler 読み込んだ行の通知先
+     */
+    public static void readLines(File file, String charset, LineHandler handler) {
+        BufferedReader reader = new BufferedReader(openMapped(file, charset));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                handler.handle(line);
+            }
+        } catch (IOException e) {
+            //ディスク障害等で読み込みができなかった場合に発生する。
+            throw new RuntimeException("IOException occurred. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            FileUtil.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * 読み込んだ行を受け取るインタフェース。
+     */
+    public interface LineHandler {
+
+        /**
+         * 1行分のデータを受け取る。
+         *
+         * @param line 行（改行文字を含まない）
+         */
+        void handle(String line);
+    }
+
+    /**
+     * ファイルをメモリマップして開く。
+     *
+     * @param file    ファイル
+     * @param charset 読み込むファイルのエンコーディング
+     * @return リーダー
+     */
+    private static MappedFileReader openMapped(File file, String charset) {
+        Charset cs;
+        try {
+            cs = Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("this encoding is not supported. encoding=[" + charset + "]", e);
+        }
+        try {
+            return new MappedFileReader(file, cs);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File is not found. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. file=[" + file.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * デコード結果の文字数を見積もる。
+     *
+     * @param size                ファイルサイズ（バイト）
+     * @param averageCharsPerByte 1バイトあたりの平均文字数
+     * @return 見積もった文字数
+     */
+    private static int estimateLength(long size, float averageCharsPerByte) {
+        return (int) Math.min((long) Math.ceil(size * (double) averageCharsPerByte), MAX_ARRAY_LENGTH);
+    }
 }
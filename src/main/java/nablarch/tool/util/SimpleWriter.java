@@ -4,9 +4,18 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
 
 import nablarch.test.tool.htmlcheck.util.FileUtil;
 
@@ -17,6 +26,9 @@ import nablarch.test.tool.htmlcheck.util.FileUtil;
  */
 public abstract class SimpleWriter {
 
+    /** 内容の比較に使用するバッファのサイズ */
+    private static final int COMPARE_BUFFER_SIZE = 8192;
+
     /** ライター */
     private final BufferedWriter writer;
 
@@ -130,6 +142,7 @@ public abstract class SimpleWriter {
 
     /**
      * 簡易書き込みを行い、出力ファイルを読み取り専用にする。
+     * 内容が変わらない場合に書き込みを省略するには{@link #writeAndSealIfChanged(File, String, Charset)}を使用する。
      *
      * @param outFile      出力先ファイル
      * @param content      出力内容
@@ -148,4 +161,157 @@ public abstract class SimpleWriter {
         // 読み取り専用にする。
         ToolFileUtil.setWritable(outFile, false);
     }
+
+    /**
+     * 出力内容が既存のファイルと異なる場合のみ、簡易書き込みを行う。
+     * <p/>
+     * 出力内容をエンコードしたバイト列と既存のファイルの内容を比較し、
+     * 同一であればファイルに一切触れない（更新日時も変わらない）。
+     * このため、生成物を出力し直しても、差分ビルドやIDEのインデックスが無効化されない。
+     * <p/>
+     * 書き込みは同じディレクトリの一時ファイルに対して行い、
+     * {@link StandardCopyOption#ATOMIC_MOVE}で出力先ファイルに置き換える。
+     * このため、書き込みの途中で処理が中断されても、出力先ファイルが不完全な内容になることはない。
+     * ファイルシステムがアトミックな移動をサポートしない場合は、通常の置き換えを行う。
+     *
+     * @param outFile      出力先ファイル
+     * @param content      出力内容
+     * @param fileEncoding エンコーディング
+     * @return 書き込みを行った場合、真（内容が同一のため書き込みを省略した場合は偽）
+     */
+    public static boolean writeIfChanged(File outFile, String content, Charset fileEncoding) {
+        byte[] bytes = content.getBytes(fileEncoding);
+        try {
+            if (hasSameContent(outFile, bytes)) {
+                return false;
+            }
+            replace(outFile, bytes);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "IOException occurred. file=[" + outFile.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * 出力内容が既存のファイルと異なる場合のみ簡易書き込みを行い、出力ファイルを読み取り専用にする。
+     * 書き込みの仕様は{@link #writeIfChanged(File, String, Charset)}と同じである。
+     *
+     * @param outFile      出力先ファイル
+     * @param content      出力内容
+     * @param fileEncoding エンコーディング
+     * @return 書き込みを行った場合、真（内容が同一のため書き込みを省略した場合は偽）
+     */
+    public static boolean writeAndSealIfChanged(File outFile, String content, Charset fileEncoding) {
+        byte[] bytes = content.getBytes(fileEncoding);
+        try {
+            if (hasSameContent(outFile, bytes)) {
+                if (outFile.canWrite()) {
+                    ToolFileUtil.setWritable(outFile, false);
+                }
+                return false;
+            }
+            // 読み取り専用のファイルを置き換えられない環境があるため、書き込み可能にする。
+            if (outFile.exists()) {
+                ToolFileUtil.setWritable(outFile, true);
+            }
+            replace(outFile, bytes);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "IOException occurred. file=[" + outFile.getAbsolutePath() + "]", e);
+        }
+        ToolFileUtil.setWritable(outFile, false);
+        return true;
+    }
+
+    /**
+     * ファイルの内容が与えられたバイト列と同一か判定する。
+     * ファイルサイズが異なる場合は、内容を読み込まずに判定する。
+     *
+     * @param file  ファイル
+     * @param bytes バイト列
+     * @return 同一の場合、真（ファイルが存在しない場合は偽）
+     * @throws IOException 入出力例外
+     */
+    private static boolean hasSameContent(File file, byte[] bytes) throws IOException {
+        if (!file.isFile() || file.length() != bytes.length) {
+            return false;
+        }
+        InputStream in = Files.newInputStream(file.toPath());
+        try {
+            byte[] buffer = new byte[COMPARE_BUFFER_SIZE];
+            int offset = 0;
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                if (offset + read > bytes.length) {
+                    return false;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != bytes[offset + i]) {
+                        return false;
+                    }
+                }
+                offset += read;
+            }
+            return offset == bytes.length;
+        } finally {
+            FileUtil.closeQuietly(in);
+        }
+    }
+
+    /**
+     * 一時ファイルに書き込み、出力先ファイルと置き換える。
+     *
+     * @param outFile 出力先ファイル
+     * @param bytes   出力内容
+     * @throws IOException 入出力例外
+     */
+    private static void replace(File outFile, byte[] bytes) throws IOException {
+        File dir = outFile.getAbsoluteFile().getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        Path target = outFile.toPath();
+        Path temp = createTempFile(dir, outFile.getName(), bytes);
+        try {
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 出力先と同じディレクトリに一時ファイルを作成し、内容を書き込む。
+     * {@link Files#createTempFile}と異なり、通常のファイルと同じパーミッションで作成する。
+     *
+     * @param dir   ディレクトリ
+     * @param name  出力先ファイル名
+     * @param bytes 出力内容
+     * @return 一時ファイル
+     * @throws IOException 入出力例外
+     */
+    private static Path createTempFile(File dir, String name, byte[] bytes) throws IOException {
+        while (true) {
+            Path temp = new File(dir, "." + name + "." + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                    + ".tmp").toPath();
+            OutputStream out;
+            try {
+                out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            try {
+                out.write(bytes);
+                out.close();
+            } catch (IOException e) {
+                FileUtil.closeQuietly(out);
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return temp;
+        }
+    }
 }
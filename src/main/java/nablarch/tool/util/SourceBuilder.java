@@ -1,12 +1,19 @@
 package nablarch.tool.util;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import nablarch.core.util.Builder;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
 
 /**
  * ソースコードを組み立てる為のクラス。
+ * <p/>
+ * 出力先（{@link Appendable}）を指定した場合、行が確定する（改行を追加する）ごとに出力先へ書き込む。
+ * {@link SimpleWriter#writeWith(java.io.BufferedWriter)}に渡されたライターを出力先とすれば、
+ * ソースコード全体をメモリ上に保持せずにファイルへ出力できる。
+ * 出力先を指定しない場合は、内部のバッファに書き込み、{@link #toString()}で取得する。
+ * <p/>
+ * 行と行の間に改行コードを出力する（最終行の後には出力しない）。
+ * 確定していない行（{@link #print(Object...)}の後に改行を追加していない行）は出力されない。
  *
  * @author T.Kawasaki
  */
@@ -23,14 +30,20 @@ public class SourceBuilder {
     /** インデントレベル（初期値は1） */
     private int indentLevel = 1;
 
+    /** インデントレベルごとのインデント文字列（要素番号がインデントレベル） */
+    private String[] indentCache = new String[] {""};
+
     /** 作成したコードのバッファ(1行分） */
     private final StringBuilder buf = new StringBuilder(256);
 
     /** 改行コード */
     private final String ls;
 
-    /** 作成したコードのバッファ（全行分） */
-    private final List<String> lines = new ArrayList<String>();
+    /** 確定した行の出力先 */
+    private final Appendable out;
+
+    /** 確定した行数 */
+    private int lineCount = 0;
 
     /** 現在、行頭を処理中か */
     private boolean head = true;
@@ -82,6 +95,41 @@ public class SourceBuilder {
      * @param ls     改行コード
      */
     public SourceBuilder(String indent, String ls) {
+        this(new StringBuilder(1024), indent, ls);
+    }
+
+    /**
+     * 出力先を指定するコンストラクタ。
+     * <p/>
+     * インデント幅はデフォルト値を利用する。
+     *
+     * @param out 確定した行の出力先
+     * @param ls  改行コード
+     */
+    public SourceBuilder(Appendable out, String ls) {
+        this(out, getTabSpace(DEFAULT_SIZE_OF_TAB_SPACE), ls);
+    }
+
+    /**
+     * 出力先・インデント幅・改行コードを指定するコンストラクタ。
+     *
+     * @param out            確定した行の出力先
+     * @param sizeOfTabSpace インデント幅
+     * @param ls             改行コード
+     */
+    public SourceBuilder(Appendable out, int sizeOfTabSpace, String ls) {
+        this(out, getTabSpace(sizeOfTabSpace), ls);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out    確定した行の出力先
+     * @param indent インデント文字列
+     * @param ls     改行コード
+     */
+    private SourceBuilder(Appendable out, String indent, String ls) {
+        this.out = Arg.notNull(out, "out");
         this.indent = indent;
         this.ls = ls;
     }
@@ -129,7 +177,15 @@ public class SourceBuilder {
      * @return 本インスタンス
      */
     public SourceBuilder println() {
-        lines.add(buf.toString());
+        try {
+            if (lineCount > 0) {
+                out.append(ls);
+            }
+            out.append(buf);
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred. out=[" + out.getClass().getName() + "]", e);
+        }
+        lineCount++;
         buf.setLength(0);
         head = true;
         return this;
@@ -174,11 +230,37 @@ public class SourceBuilder {
     /**
      * 文字列表現を得る。<br/>
      * 今まで追加したソースコードが返却される。
+     * 出力先を指定した場合は、出力先の文字列表現が返却される。
      *
      * @return ソースコード
      */
     public String toString() {
-        return Builder.join(lines, ls);
+        return out.toString();
+    }
+
+    /**
+     * 今まで追加したソースコードを取得する。
+     * 出力先を指定した場合は、出力先が内容を保持するもの（{@link CharSequence}・{@link StringWriter}）の場合のみ取得できる。
+     *
+     * @return ソースコード
+     * @throws IllegalStateException 出力先が内容を保持しない場合（ファイルへのライター等）
+     */
+    String getContent() throws IllegalStateException {
+        if (!hasContent()) {
+            throw new IllegalStateException(
+                    "source code is not available because it was written to out."
+                            + " out=[" + out.getClass().getName() + "]");
+        }
+        return out.toString();
+    }
+
+    /**
+     * 出力先が、確定した行を内容として保持しているか判定する。
+     *
+     * @return 出力先を指定していない場合、または出力先が{@link CharSequence}・{@link StringWriter}の場合、真
+     */
+    boolean hasContent() {
+        return out instanceof CharSequence || out instanceof StringWriter;
     }
 
     /**
@@ -197,9 +279,27 @@ public class SourceBuilder {
      * @return 本インスタンス
      */
     private SourceBuilder appendIndent() {
-        for (int i = 0; i < indentLevel; i++) {
-            buf.append(indent);
+        if (indentLevel > 0) {
+            buf.append(getIndent(indentLevel));
         }
         return this;
     }
+
+    /**
+     * インデントレベルに対応するインデント文字列を取得する。
+     * 一度作成したインデント文字列は、インデントレベルごとに再利用する。
+     *
+     * @param level インデントレベル（1以上）
+     * @return インデント文字列
+     */
+    private String getIndent(int level) {
+        if (level >= indentCache.length) {
+            int from = indentCache.length;
+            indentCache = Arrays.copyOf(indentCache, Math.max(level + 1, from * 2));
+            for (int i = from; i < indentCache.length; i++) {
+                indentCache[i] = indentCache[i - 1] + indent;
+            }
+        }
+        return indentCache[level];
+    }
 }
@@ -0,0 +1,47 @@
+package nablarch.tool.util.poi;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 行番号・列番号を指定してセルの文字列表現を取得できるシートを表すインタフェース。
+ * <p/>
+ * .xls形式のシート（{@link org.apache.poi.hssf.usermodel.HSSFSheet}）と、
+ * .xlsx形式から読み込んだシートを同じように扱うために使用する。
+ */
+interface CellSource {
+
+    /**
+     * 最終行の行番号（0オリジン）を取得する。
+     *
+     * @return 最終行の行番号
+     */
+    int getLastRowNum();
+
+    /**
+     * セルの文字列表現を取得する。
+     * 行またはセルが存在しない場合は空文字を返却する。
+     *
+     * @param rowIndex  行番号（0オリジン）
+     * @param cellIndex 列番号（0オリジン）
+     * @return セルの文字列表現
+     */
+    String toString(int rowIndex, int cellIndex);
+
+    /**
+     * 本シートを読み込む、別のインスタンスを取得する。
+     * 取得したインスタンスは、本インスタンスと読み込みの状態（直前に参照した行など）を共有しない。
+     * 読み込みの状態を持たない実装は、本インスタンス自身を返却してよい。
+     *
+     * @return 本シートを読み込むインスタンス
+     */
+    CellSource copy();
+
+    /**
+     * 本シートについて作成した索引の格納先を取得する。
+     * 格納先はブックと同じ期間保持される。
+     *
+     * @return 索引の格納先（索引をキャッシュできない場合はnull）
+     * @see RowFinder#getIndex(String...)
+     */
+    ConcurrentMap<String, RowIndex> getRowIndexCache();
+}
@@ -0,0 +1,61 @@
+package nablarch.tool.util.poi;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+
+/**
+ * {@link HSSFSheet}を{@link CellSource}として扱うクラス。
+ * <p/>
+ * 同じ行のセルを続けて読み込む際に行の検索を繰り返さないよう、直前に参照した行を保持する。
+ * このため、本クラスはスレッドセーフではない。
+ */
+class HssfCellSource implements CellSource {
+
+    /** シート */
+    private final HSSFSheet sheet;
+
+    /** 直前に参照した行の行番号 */
+    private int lastRowIndex = -1;
+
+    /** 直前に参照した行 */
+    private HSSFRow lastRow;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param sheet シート
+     */
+    HssfCellSource(HSSFSheet sheet) {
+        this.sheet = sheet;
+    }
+
+    /** {@inheritDoc} */
+    public int getLastRowNum() {
+        return sheet.getLastRowNum();
+    }
+
+    /** {@inheritDoc} */
+    public String toString(int rowIndex, int cellIndex) {
+        if (rowIndex != lastRowIndex) {
+            lastRow = sheet.getRow(rowIndex);
+            lastRowIndex = rowIndex;
+        }
+        return PoiUtil.toString(lastRow, cellIndex);
+    }
+
+    /** {@inheritDoc} */
+    public CellSource copy() {
+        return new HssfCellSource(sheet);
+    }
+
+    /**
+     * {@inheritDoc}
+     * ブックが{@link PoiUtil#getHssfWorkbook(java.io.File)}でキャッシュされている場合のみ、
+     * 索引をブックのキャッシュと共に保持する。
+     */
+    public ConcurrentMap<String, RowIndex> getRowIndexCache() {
+        return PoiUtil.getRowIndexCache(sheet);
+    }
+}
@@ -0,0 +1,300 @@
+package nablarch.tool.util.poi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.core.util.FileUtil;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * POIのイベントモデル（{@link HSSFEventFactory}）を使用して、
+ * .xls形式のブックから指定したシートの行を逐次読み込むクラス。
+ * <p/>
+ * {@link org.apache.poi.hssf.usermodel.HSSFWorkbook}を構築しないため、
+ * ブックのサイズに関わらず少ないヒープで読み込むことができる。
+ * 対象シートの読み込みが完了した時点で、残りのレコードの解析を打ち切る。
+ * <p/>
+ * セルの値は{@link PoiUtil#toString(org.apache.poi.hssf.usermodel.HSSFCell)}と同じ文字列表現に変換される。
+ * ただし、数式セルは再評価せず、ブックに保存されている計算結果を使用する。
+ */
+class HssfSheetEventReader extends AbortableHSSFListener {
+
+    /** 読み込みを継続することを表す戻り値 */
+    private static final short CONTINUE = 0;
+
+    /** 読み込みを中断することを表す戻り値 */
+    private static final short ABORT = 1;
+
+    /** 読み込み対象のブック */
+    private final File file;
+
+    /** 読み込み対象のシート名 */
+    private final String sheetName;
+
+    /** 行の通知先 */
+    private final SheetRowListener listener;
+
+    /** ブックに含まれるシートの定義（出現順） */
+    private final List<BoundSheetRecord> boundSheets = new ArrayList<BoundSheetRecord>();
+
+    /** シートの定義（シートのストリーム位置順） */
+    private BoundSheetRecord[] orderedSheets;
+
+    /** 共有文字列テーブル */
+    private SSTRecord sst;
+
+    /** BOF-EOFのネストの深さ */
+    private int depth = 0;
+
+    /** 処理中シートのインデックス（シートのストリーム位置順） */
+    private int sheetIndex = -1;
+
+    /** 対象シートを処理中か */
+    private boolean inTargetSheet = false;
+
+    /** 対象シートが見つかったか */
+    private boolean found = false;
+
+    /** 処理中の行番号 */
+    private int currentRow = -1;
+
+    /** 処理中の行のセル値 */
+    private final List<String> cells = new ArrayList<String>();
+
+    /** 文字列の計算結果を待っている数式セルの列番号（待っていない場合は-1） */
+    private int pendingFormulaColumn = -1;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file      読み込み対象のブック
+     * @param sheetName 読み込み対象のシート名
+     * @param listener  行の通知先
+     */
+    HssfSheetEventReader(File file, String sheetName, SheetRowListener listener) {
+        this.file = file;
+        this.sheetName = sheetName;
+        this.listener = listener;
+    }
+
+    /**
+     * 読み込みを行う。
+     *
+     * @throws IllegalArgumentException 対象シートがブックに存在しない場合
+     */
+    void read() throws IllegalArgumentException {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(this);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, new POIFSFileSystem(in));
+        } catch (IOException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (HSSFUserException e) {
+            throw new RuntimeException("reading book was aborted. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            FileUtil.closeQuietly(in);
+        }
+        if (!found) {
+            throw new IllegalArgumentException("could not find sheet [" + sheetName + "] in the book.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public short abortableProcessRecord(Record record) {
+        switch (record.getSid()) {
+            case BOFRecord.sid:
+                if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    startSheet();
+                }
+                return CONTINUE;
+            case EOFRecord.sid:
+                if (--depth == 0 && inTargetSheet) {
+                    // 対象シートの終端。最終行を通知して打ち切る。
+                    if (currentRow >= 0) {
+                        listener.onRow(currentRow, cells);
+                    }
+                    return ABORT;
+                }
+                return CONTINUE;
+            case BoundSheetRecord.sid:
+                boundSheets.add((BoundSheetRecord) record);
+                return CONTINUE;
+            case SSTRecord.sid:
+                sst = (SSTRecord) record;
+                return CONTINUE;
+            default:
+                // シート内（埋め込みグラフを除く）のレコードのみ処理する。
+                if (!inTargetSheet || depth != 1) {
+                    return CONTINUE;
+                }
+                return processCellRecord(record) ? CONTINUE : ABORT;
+        }
+    }
+
+    /**
+     * シートの開始を処理する。
+     */
+    private void startSheet() {
+        sheetIndex++;
+        if (orderedSheets == null) {
+            orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+        }
+        inTargetSheet = sheetIndex < orderedSheets.length
+                && orderedSheets[sheetIndex].getSheetname().equalsIgnoreCase(sheetName);
+        found = found || inTargetSheet;
+    }
+
+    /**
+     * セルを表すレコードを処理する。
+     *
+     * @param record レコード
+     * @return 読み込みを継続する場合、真
+     */
+    private boolean processCellRecord(Record record) {
+        switch (record.getSid()) {
+            case LabelSSTRecord.sid:
+                LabelSSTRecord labelSst = (LabelSSTRecord) record;
+                return cell(labelSst.getRow(), labelSst.getColumn(),
+                            sst.getString(labelSst.getSSTIndex()).getString());
+            case LabelRecord.sid:
+                LabelRecord label = (LabelRecord) record;
+                return cell(label.getRow(), label.getColumn(), label.getValue());
+            case NumberRecord.sid:
+                NumberRecord number = (NumberRecord) record;
+                return cell(number.getRow(), number.getColumn(), String.valueOf(number.getValue()));
+            case RKRecord.sid:
+                RKRecord rk = (RKRecord) record;
+                return cell(rk.getRow(), rk.getColumn(), String.valueOf(rk.getRKNumber()));
+            case MulRKRecord.sid:
+                MulRKRecord mulRk = (MulRKRecord) record;
+                for (int i = 0; i < mulRk.getNumColumns(); i++) {
+                    if (!cell(mulRk.getRow(), mulRk.getFirstColumn() + i, String.valueOf(mulRk.getRKNumberAt(i)))) {
+                        return false;
+                    }
+                }
+                return true;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                if (boolErr.isError()) {
+                    throw cellError(boolErr.getRow(), boolErr.getColumn(), Cell.CELL_TYPE_ERROR);
+                }
+                return cell(boolErr.getRow(), boolErr.getColumn(), String.valueOf(boolErr.getBooleanValue()));
+            case BlankRecord.sid:
+                BlankRecord blank = (BlankRecord) record;
+                return cell(blank.getRow(), blank.getColumn(), "");
+            case MulBlankRecord.sid:
+                MulBlankRecord mulBlank = (MulBlankRecord) record;
+                for (int i = mulBlank.getFirstColumn(); i <= mulBlank.getLastColumn(); i++) {
+                    if (!cell(mulBlank.getRow(), i, "")) {
+                        return false;
+                    }
+                }
+                return true;
+            case FormulaRecord.sid:
+                return formula((FormulaRecord) record);
+            case StringRecord.sid:
+                // 直前の数式セルの計算結果（文字列）
+                if (pendingFormulaColumn >= 0) {
+                    cells.set(pendingFormulaColumn, ((StringRecord) record).getString());
+                    pendingFormulaColumn = -1;
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 数式セルを処理する。
+     * 数式は再評価せず、保存されている計算結果を使用する。
+     *
+     * @param formula 数式セル
+     * @return 読み込みを継続する場合、真
+     */
+    private boolean formula(FormulaRecord formula) {
+        int type = formula.getCachedResultType();
+        switch (type) {
+            case Cell.CELL_TYPE_NUMERIC:
+                return cell(formula.getRow(), formula.getColumn(), String.valueOf(formula.getValue()));
+            case Cell.CELL_TYPE_BOOLEAN:
+                return cell(formula.getRow(), formula.getColumn(), String.valueOf(formula.getCachedBooleanValue()));
+            case Cell.CELL_TYPE_STRING:
+                // 計算結果は後続のStringRecordに格納されている。
+                boolean continues = cell(formula.getRow(), formula.getColumn(), "");
+                pendingFormulaColumn = formula.hasCachedResultString() ? formula.getColumn() : -1;
+                return continues;
+            default:
+                throw cellError(formula.getRow(), formula.getColumn(), type);
+        }
+    }
+
+    /**
+     * セル値を処理中の行に格納する。
+     * 行が変わった場合は、それまでの行を通知する。
+     *
+     * @param row    行番号
+     * @param column 列番号
+     * @param value  セル値
+     * @return 読み込みを継続する場合、真
+     */
+    private boolean cell(int row, int column, String value) {
+        if (row != currentRow) {
+            if (currentRow >= 0 && !listener.onRow(currentRow, cells)) {
+                return false;
+            }
+            currentRow = row;
+            cells.clear();
+            pendingFormulaColumn = -1;
+        }
+        while (cells.size() <= column) {
+            cells.add(null);
+        }
+        cells.set(column, value);
+        return true;
+    }
+
+    /**
+     * 読み込めないセルを表す例外を生成する。
+     *
+     * @param row      行番号
+     * @param column   列番号
+     * @param cellType セルの型
+     * @return 例外
+     */
+    private RuntimeException cellError(int row, int column, int cellType) {
+        return new RuntimeException(
+                "unexpected exception occurred in processing cell."
+                        + " fileName = [" + file.getAbsolutePath() + ']'
+                        + " sheetName = [" + sheetName + ']'
+                        + " rowNumber = [" + (row + 1) + ']'
+                        + " columnNumber = [" + (column + 1) + ']',
+                new IllegalArgumentException("could not handle cell formula. cell type=[" + cellType + "]"));
+    }
+}
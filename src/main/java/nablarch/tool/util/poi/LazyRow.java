@@ -0,0 +1,153 @@
+package nablarch.tool.util.poi;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * カラム定義に沿って、シートの1行を参照する変更不可のMap。
+ * <p/>
+ * セルは値が要求された時点で初めて読み込まれ、読み込んだ値は本インスタンス内に保持される。
+ * キー・値・順序は{@link XlsColumnDefs#collect(CellSource, int)}の結果と同じである。
+ * <p/>
+ * {@link #moveTo(int)}により、同じインスタンスを別の行の参照に再利用できる。
+ * 本クラスはスレッドセーフではない。
+ */
+final class LazyRow extends AbstractMap<String, String> {
+
+    /** シート */
+    private final CellSource sheet;
+
+    /** カラム定義 */
+    private final XlsColumnDefs defs;
+
+    /** 読み込み済みのセル値（未読込の位置はnull） */
+    private final String[] values;
+
+    /** 参照中の行番号 */
+    private int rowIndex;
+
+    /** エントリのビュー */
+    private Set<Map.Entry<String, String>> entrySet;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param sheet シート
+     * @param defs  カラム定義
+     */
+    LazyRow(CellSource sheet, XlsColumnDefs defs) {
+        this.sheet = sheet;
+        this.defs = defs;
+        this.values = new String[defs.getColumnCount()];
+    }
+
+    /**
+     * 参照する行を変更する。
+     * 読み込み済みのセル値は破棄される。
+     *
+     * @param rowIndex 行番号（0オリジン）
+     * @return 本インスタンス自身
+     */
+    LazyRow moveTo(int rowIndex) {
+        this.rowIndex = rowIndex;
+        Arrays.fill(values, null);
+        return this;
+    }
+
+    /**
+     * 参照中の行の全カラムを読み込み、通常のMapに変換する。
+     *
+     * @return 行データ（カラムのインデックス順に順序付けされている）
+     */
+    LinkedHashMap<String, String> materialize() {
+        LinkedHashMap<String, String> ret = new LinkedHashMap<String, String>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            ret.put(defs.getColumnNameAt(i), valueAt(i));
+        }
+        return ret;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String get(Object key) {
+        int position = defs.positionOf(key);
+        return (position < 0) ? null : valueAt(position);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean containsKey(Object key) {
+        return defs.positionOf(key) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new Iterator<Map.Entry<String, String>>() {
+                        private int position = 0;
+
+                        public boolean hasNext() {
+                            return position < values.length;
+                        }
+
+                        public Map.Entry<String, String> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = position++;
+                            return new SimpleImmutableEntry<String, String>(
+                                    defs.getColumnNameAt(current), valueAt(current));
+                        }
+
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.length;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * 指定した位置のカラムの値を取得する。
+     * 未読込の場合はシートから読み込む。
+     *
+     * @param position 位置
+     * @return カラムの値
+     */
+    private String valueAt(int position) {
+        String value = values[position];
+        if (value == null) {
+            try {
+                value = sheet.toString(rowIndex, defs.getColumnIndexAt(position));
+            } catch (RuntimeException e) {
+                throw new RuntimeException(
+                        "unexpected exception occurred in processing row at [" + rowIndex + "]", e);
+            }
+            values[position] = value;
+        }
+        return value;
+    }
+}
@@ -1,23 +1,21 @@
 package nablarch.tool.util.poi;
 
 import nablarch.core.util.FileUtil;
-import nablarch.test.NablarchTestUtils;
 import org.apache.poi.hpsf.SummaryInformation;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * POIを扱う際のユーティリティクラス。
@@ -26,8 +24,11 @@ import java.util.Map;
  */
 public final class PoiUtil {
 
-    /** 一度読み込んだブック（{@link HSSFWorkbook}）のキャッシュ */
-    private static Map<String, HSSFWorkbook> bookCache = NablarchTestUtils.createLRUMap(5);
+    /**
+     * 一度読み込んだブック（{@link HSSFWorkbook}）のキャッシュ。
+     * 推定ヒープ使用量の合計が、最大ヒープサイズの1/4を超えないように保持する。
+     */
+    private static final WorkbookCache BOOK_CACHE = new WorkbookCache(Runtime.getRuntime().maxMemory() / 4);
 
     /** プライベートコンストラクタ */
     private PoiUtil() {
@@ -46,28 +47,37 @@ public final class PoiUtil {
     /**
      * ブックを取得する。
      * 後でドキュメントのファイルパスを取得できるように、タイトル領域にパスを設定する。
+     * <p/>
+     * 一度読み込んだブックはキャッシュされる。
+     * 本メソッドは複数スレッドから同時に呼び出すことができ、
+     * 同一ファイルに対する読み込みは1度だけ行われる。
+     * 読み込み後にファイルが更新された場合（最終更新日時またはサイズが変化した場合）は、
+     * 次回呼び出し時に読み込み直す。
      *
      * @param file ファイル
      * @return ブック
      */
     public static HSSFWorkbook getHssfWorkbook(File file) {
-        String uri = file.toURI().toString();
-        HSSFWorkbook book = bookCache.get(uri);
-        if (book != null) {
-            return book;  // cache hit.
+        return BOOK_CACHE.get(file);
+    }
+
+    /**
+     * ブック内の数式の評価結果のキャッシュを破棄する。
+     * <p/>
+     * {@link #getHssfWorkbook(File)}で取得したブックの数式評価結果は、ブックごとにキャッシュされる。
+     * {@link SimpleTableWriter}で書き込んだ場合は自動的に破棄されるが、
+     * それ以外の方法で取得したブックのセルを更新した後で数式セルを読み込む場合は、本メソッドを呼び出すこと。
+     *
+     * @param book ブック
+     */
+    public static void clearFormulaResults(HSSFWorkbook book) {
+        FormulaEvaluator evaluator = BOOK_CACHE.getFormulaEvaluator(book);
+        if (evaluator == null) {
+            return;
         }
-        InputStream in = FileUtil.getResource(uri);
-        try {
-            book = new HSSFWorkbook(new POIFSFileSystem(in));
-            // 後でドキュメントのファイルパスを取得できるように、タイトル領域にパスを設定する。
-            book.getSummaryInformation().setTitle(file.getAbsolutePath());
-        } catch (IOException e) {
-            throw new RuntimeException("test data file open failed.", e);
-        } finally {
-            FileUtil.closeQuietly(in);
+        synchronized (evaluator) {
+            evaluator.clearAllCachedResultValues();
         }
-        bookCache.put(uri, book);
-        return book;
     }
 
     /**
@@ -116,33 +126,345 @@ public final class PoiUtil {
      * @return 変換後の文字列
      */
     public static String toString(HSSFCell cell) {
+        return toString(cell, false);
+    }
+
+    /**
+     * セルを文字列に変換する。
+     * <p/>
+     * 数式セルの読み込み方法を指定できる。
+     * 保存されている計算結果（Excelで最後に計算された値）を読み込む場合、数式の評価のコストはかからないが、
+     * POIで更新したセルは計算結果に反映されない。
+     *
+     * @param cell                   変換対象のセル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return 変換後の文字列
+     */
+    public static String toString(HSSFCell cell, boolean useCachedFormulaResult) {
         if (cell == null) {
             return "";
         }
         try {
-            return readCellValue(cell);
+            return readCellValue(cell, useCachedFormulaResult);
+        } catch (RuntimeException e) {
+            throw cellException(cell, e);
+        }
+    }
+
+    /**
+     * セルの文字列表現を、与えられたバッファに追加する。
+     * <p/>
+     * 追加される内容は{@link #toString(HSSFCell)}と同じである。
+     * 数値・真偽値のセルは、中間の{@link String}を生成せずにバッファへ直接書き込まれるため、
+     * 大量のセルを連結する場合に{@link #toString(HSSFCell)}よりも生成するオブジェクトが少ない。
+     *
+     * @param cell 変換対象のセル（nullの場合は何も追加しない）
+     * @param buf  追加先のバッファ
+     * @return 引数で与えられたバッファ
+     */
+    public static StringBuilder appendTo(HSSFCell cell, StringBuilder buf) {
+        if (cell == null) {
+            return buf;
+        }
+        try {
+            switch (cell.getCellType()) {
+                case Cell.CELL_TYPE_NUMERIC:
+                    return buf.append(cell.getNumericCellValue());
+                case Cell.CELL_TYPE_BOOLEAN:
+                    return buf.append(cell.getBooleanCellValue());
+                default:
+                    return buf.append(readCellValue(cell, false));
+            }
+        } catch (RuntimeException e) {
+            throw cellException(cell, e);
+        }
+    }
+
+    /**
+     * セルの値を数値として取得する。
+     * <p/>
+     * 数値セルはその値を、文字列セルは{@link Double#parseDouble(String)}で変換した値を返却する。
+     * 数式セルは評価結果を同様に変換する。
+     *
+     * @param cell セル
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または数値に変換できない場合
+     */
+    public static double getDouble(HSSFCell cell) throws RuntimeException {
+        return getDouble(cell, false);
+    }
+
+    /**
+     * セルの値を数値として取得する。
+     * <p/>
+     * 変換の仕様は{@link #getDouble(HSSFCell)}と同じである。
+     * 数式セルの読み込み方法は{@link #toString(HSSFCell, boolean)}と同様に指定できる。
+     *
+     * @param cell                   セル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または数値に変換できない場合
+     */
+    public static double getDouble(HSSFCell cell, boolean useCachedFormulaResult) throws RuntimeException {
+        checkNotEmpty(cell);
+        try {
+            CellValue value = getCellValue(cell, useCachedFormulaResult);
+            switch (value.getCellType()) {
+                case Cell.CELL_TYPE_NUMERIC:
+                    return value.getNumberValue();
+                case Cell.CELL_TYPE_STRING:
+                    return Double.parseDouble(value.getStringValue().trim());
+                default:
+                    throw new IllegalArgumentException(
+                            "could not read cell as number. cell type=[" + value.getCellType() + "]");
+            }
         } catch (RuntimeException e) {
-            HSSFSheet sheet = cell.getSheet();
-            HSSFWorkbook workbook = sheet.getWorkbook();
-            throw new RuntimeException(
-                    "unexpected exception occurred in processing cell."
-                            + " fileName = [" + workbook.getSummaryInformation().getTitle() + ']'
-                            + " sheetName = [" + sheet.getSheetName() + ']'
-                            + " rowNumber = [" + (cell.getRowIndex() + 1) + ']'
-                            + " columnNumber = [" + (cell.getColumnIndex() + 1) + ']',
-                    e);
+            throw cellException(cell, e);
         }
     }
 
+    /**
+     * セルの値を整数として取得する。
+     * <p/>
+     * 数値セルの場合、小数部を持たない値のみ変換できる。
+     * 文字列セルは{@link Long#parseLong(String)}で変換するため、
+     * 先頭が0埋めされた値（例えば<code>0000000001</code>）や、
+     * {@code double}では正確に表現できない桁数の値も変換できる。
+     *
+     * @param cell セル
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または整数に変換できない場合
+     */
+    public static long getLong(HSSFCell cell) throws RuntimeException {
+        return getLong(cell, false);
+    }
+
+    /**
+     * セルの値を整数として取得する。
+     * <p/>
+     * 変換の仕様は{@link #getLong(HSSFCell)}と同じである。
+     * 数式セルの読み込み方法は{@link #toString(HSSFCell, boolean)}と同様に指定できる。
+     *
+     * @param cell                   セル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または整数に変換できない場合
+     */
+    public static long getLong(HSSFCell cell, boolean useCachedFormulaResult) throws RuntimeException {
+        checkNotEmpty(cell);
+        try {
+            CellValue value = getCellValue(cell, useCachedFormulaResult);
+            switch (value.getCellType()) {
+                case Cell.CELL_TYPE_NUMERIC:
+                    return toLong(value.getNumberValue());
+                case Cell.CELL_TYPE_STRING:
+                    return Long.parseLong(value.getStringValue().trim());
+                default:
+                    throw new IllegalArgumentException(
+                            "could not read cell as integer. cell type=[" + value.getCellType() + "]");
+            }
+        } catch (RuntimeException e) {
+            throw cellException(cell, e);
+        }
+    }
+
+    /**
+     * セルの値を真偽値として取得する。
+     * <p/>
+     * 真偽値セルはその値を、文字列セルは<code>true</code>または<code>false</code>（大文字小文字は区別しない）を変換した値を返却する。
+     *
+     * @param cell セル
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または真偽値に変換できない場合
+     */
+    public static boolean getBoolean(HSSFCell cell) throws RuntimeException {
+        return getBoolean(cell, false);
+    }
+
+    /**
+     * セルの値を真偽値として取得する。
+     * <p/>
+     * 変換の仕様は{@link #getBoolean(HSSFCell)}と同じである。
+     * 数式セルの読み込み方法は{@link #toString(HSSFCell, boolean)}と同様に指定できる。
+     *
+     * @param cell                   セル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return セルの値
+     * @throws RuntimeException セルが空の場合、または真偽値に変換できない場合
+     */
+    public static boolean getBoolean(HSSFCell cell, boolean useCachedFormulaResult) throws RuntimeException {
+        checkNotEmpty(cell);
+        try {
+            CellValue value = getCellValue(cell, useCachedFormulaResult);
+            switch (value.getCellType()) {
+                case Cell.CELL_TYPE_BOOLEAN:
+                    return value.getBooleanValue();
+                case Cell.CELL_TYPE_STRING:
+                    return parseBoolean(value.getStringValue());
+                default:
+                    throw new IllegalArgumentException(
+                            "could not read cell as boolean. cell type=[" + value.getCellType() + "]");
+            }
+        } catch (RuntimeException e) {
+            throw cellException(cell, e);
+        }
+    }
+
+    /**
+     * セルの実際の型と値を取得する。
+     * 数式セルの場合は、評価結果（または保存されている計算結果）の型と値を返却する。
+     * 真偽値は{@link CellValue}の定数を使用するため、新たなインスタンスを生成しない。
+     *
+     * @param cell                   空でないセル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return セルの型と値
+     */
+    private static CellValue getCellValue(HSSFCell cell, boolean useCachedFormulaResult) {
+        int type = cell.getCellType();
+        if (type == Cell.CELL_TYPE_FORMULA) {
+            if (!useCachedFormulaResult) {
+                return evaluateFormula(cell);
+            }
+            type = cell.getCachedFormulaResultType();
+        }
+        switch (type) {
+            case Cell.CELL_TYPE_NUMERIC:
+                return new CellValue(cell.getNumericCellValue());
+            case Cell.CELL_TYPE_STRING:
+                return new CellValue(cell.getStringCellValue());
+            case Cell.CELL_TYPE_BOOLEAN:
+                return CellValue.valueOf(cell.getBooleanCellValue());
+            default:
+                return CellValue.getError(cell.getErrorCellValue());
+        }
+    }
+
+    /**
+     * セルが値を保持しているか判定する。
+     * 判定結果は{@link #toString(HSSFCell)}の結果が空文字でないことと等価であるが、
+     * 数値・真偽値のセルについては文字列への変換を行わない。
+     *
+     * @param cell セル
+     * @return 値を保持している場合、真
+     */
+    static boolean hasValue(HSSFCell cell) {
+        return hasValue(cell, false);
+    }
+
+    /**
+     * セルが値を保持しているか判定する。
+     *
+     * @param cell                   セル
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return 値を保持している場合、真
+     * @see #toString(HSSFCell, boolean)
+     */
+    static boolean hasValue(HSSFCell cell, boolean useCachedFormulaResult) {
+        if (cell == null) {
+            return false;
+        }
+        switch (cell.getCellType()) {
+            case Cell.CELL_TYPE_BLANK:
+                return false;
+            case Cell.CELL_TYPE_NUMERIC:
+            case Cell.CELL_TYPE_BOOLEAN:
+                return true;
+            case Cell.CELL_TYPE_STRING:
+                return cell.getStringCellValue().length() > 0;
+            default:
+                return toString(cell, useCachedFormulaResult).length() > 0;
+        }
+    }
+
+    /**
+     * セルが空でないことを確認する。
+     *
+     * @param cell セル
+     * @throws IllegalArgumentException セルがnullまたは空白セルの場合
+     */
+    private static void checkNotEmpty(HSSFCell cell) throws IllegalArgumentException {
+        if (cell == null) {
+            throw new IllegalArgumentException("cell must not be null.");
+        }
+        if (cell.getCellType() == Cell.CELL_TYPE_BLANK) {
+            throw cellException(cell, new IllegalArgumentException("cell is blank."));
+        }
+    }
+
+    /**
+     * 数値を整数に変換する。
+     *
+     * @param value 数値
+     * @return 整数
+     * @throws IllegalArgumentException 小数部を持つ場合、または{@code long}の範囲外の場合
+     */
+    private static long toLong(double value) throws IllegalArgumentException {
+        long converted = (long) value;
+        if (converted != value) {
+            throw new IllegalArgumentException("could not read cell as integer. value=[" + value + "]");
+        }
+        return converted;
+    }
+
+    /**
+     * 文字列を真偽値に変換する。
+     *
+     * @param value 文字列
+     * @return 真偽値
+     * @throws IllegalArgumentException <code>true</code>・<code>false</code>のいずれでもない場合
+     */
+    private static boolean parseBoolean(String value) throws IllegalArgumentException {
+        String trimmed = value.trim();
+        if ("true".equalsIgnoreCase(trimmed)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(trimmed)) {
+            return false;
+        }
+        throw new IllegalArgumentException("could not read cell as boolean. value=[" + value + "]");
+    }
+
+    /**
+     * セルの処理中に発生した例外を、セルの位置情報を含む例外に変換する。
+     *
+     * @param cell セル
+     * @param e    発生した例外
+     * @return 変換後の例外
+     */
+    private static RuntimeException cellException(HSSFCell cell, RuntimeException e) {
+        HSSFSheet sheet = cell.getSheet();
+        HSSFWorkbook workbook = sheet.getWorkbook();
+        return new RuntimeException(
+                "unexpected exception occurred in processing cell."
+                        + " fileName = [" + getBookPath(workbook) + ']'
+                        + " sheetName = [" + sheet.getSheetName() + ']'
+                        + " rowNumber = [" + (cell.getRowIndex() + 1) + ']'
+                        + " columnNumber = [" + (cell.getColumnIndex() + 1) + ']',
+                e);
+    }
+
     /**
      * {@link HSSFCell}の値を文字列として読み込む。
+     * 数値・真偽値のセルは、値をボクシングせずに文字列へ変換する。
      *
-     * @param cell {@link HSSFCell}
+     * @param cell                   {@link HSSFCell}
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
      * @return 読み込んだ文字列値
      */
-    private static String readCellValue(HSSFCell cell) {
-        Object content = doReadCell(cell);
-        return String.valueOf(content);
+    private static String readCellValue(HSSFCell cell, boolean useCachedFormulaResult) {
+        switch (cell.getCellType()) {
+            case Cell.CELL_TYPE_BLANK:
+                return "";
+            case Cell.CELL_TYPE_NUMERIC:
+                return String.valueOf(cell.getNumericCellValue());
+            case Cell.CELL_TYPE_BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case Cell.CELL_TYPE_STRING:
+                return cell.getStringCellValue();
+            default:
+                Object content = doReadCell(cell, useCachedFormulaResult);
+                return String.valueOf(content);
+        }
     }
 
     /**
@@ -155,6 +477,18 @@ public final class PoiUtil {
      * @throws IllegalArgumentException 数式の評価結果がエラーの場合
      */
     static Object doReadCell(HSSFCell cell) throws IllegalArgumentException {
+        return doReadCell(cell, false);
+    }
+
+    /**
+     * {@link HSSFCell}の値を読み込む。
+     *
+     * @param cell                   {@link HSSFCell}
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     * @return 読み込んだ値
+     * @throws IllegalArgumentException 数式の評価結果がエラーの場合
+     */
+    static Object doReadCell(HSSFCell cell, boolean useCachedFormulaResult) throws IllegalArgumentException {
         int type = cell.getCellType();
         switch (type) {
             case Cell.CELL_TYPE_BLANK:
@@ -166,6 +500,9 @@ public final class PoiUtil {
             case Cell.CELL_TYPE_STRING:
                 return cell.getStringCellValue();
             case Cell.CELL_TYPE_FORMULA:
+                if (useCachedFormulaResult) {
+                    return readCachedFormulaResult(cell);
+                }
                 // 数式の場合、式評価の結果により分岐する。
                 CellValue evaluated = evaluateFormula(cell);
                 int evaluatedCellType = evaluated.getCellType();
@@ -188,18 +525,59 @@ public final class PoiUtil {
         }
     }
 
+    /**
+     * 数式セルに保存されている計算結果を読み込む。
+     *
+     * @param cell 数式セル
+     * @return 計算結果
+     * @throws IllegalArgumentException 計算結果がエラーの場合
+     */
+    private static Object readCachedFormulaResult(HSSFCell cell) throws IllegalArgumentException {
+        int cachedType = cell.getCachedFormulaResultType();
+        switch (cachedType) {
+            case Cell.CELL_TYPE_STRING:
+                return cell.getStringCellValue();
+            case Cell.CELL_TYPE_NUMERIC:
+                return cell.getNumericCellValue();
+            case Cell.CELL_TYPE_BOOLEAN:
+                return cell.getBooleanCellValue();
+            default:
+                throw new IllegalArgumentException(
+                        "could not handle cell formula. cell type=[" + cachedType + "]");
+        }
+    }
+
+    /**
+     * シートの索引の格納先を取得する。
+     * 索引はブックのキャッシュと共に保持され、ブックが読み込み直された場合や、
+     * キャッシュから破棄された場合は破棄される。
+     *
+     * @param sheet シート
+     * @return 索引の格納先（ブックがキャッシュされていない場合はnull）
+     */
+    static ConcurrentMap<String, RowIndex> getRowIndexCache(HSSFSheet sheet) {
+        return BOOK_CACHE.getRowIndexes(sheet.getWorkbook(), sheet.getSheetName());
+    }
+
     /**
      * 数式を評価した値を取得する。
+     * キャッシュされたブックの場合、ブックごとに1つの評価器を再利用する。
      *
      * @param cell 評価対象となるセル
      * @return 数式を評価した結果の値
      */
     private static CellValue evaluateFormula(HSSFCell cell) {
-        return cell.getSheet()
-                   .getWorkbook()
-                   .getCreationHelper()
-                   .createFormulaEvaluator()
-                   .evaluate(cell);
+        HSSFWorkbook book = cell.getSheet().getWorkbook();
+        FormulaEvaluator evaluator = BOOK_CACHE.getFormulaEvaluator(book);
+        if (evaluator == null) {
+            // キャッシュ対象外のブック
+            return book.getCreationHelper()
+                       .createFormulaEvaluator()
+                       .evaluate(cell);
+        }
+        synchronized (evaluator) {
+            return evaluator.evaluate(cell);
+        }
     }
 
     /**
@@ -1,10 +1,13 @@
 package nablarch.tool.util.poi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 
 import nablarch.core.util.StringUtil;
@@ -18,11 +21,14 @@ import nablarch.tool.util.Arg;
 public class RowFinder {
 
     /** 検索対象シート */
-    private final HSSFSheet sheet;
+    private final CellSource sheet;
 
     /** カラム定義 */
     private final XlsColumnDefs defs;
 
+    /** 検索開始行 */
+    private final int startRowIndex;
+
     /** 処理対象行のインデックス */
     private int rowIndex = 0;
 
@@ -37,7 +43,19 @@ public class RowFinder {
      * @param defs          カラム定義
      */
     public RowFinder(HSSFSheet sheet, int startRowIndex, XlsColumnDefs defs) {
+        this(new HssfCellSource(Arg.notNull(sheet, "sheet")), startRowIndex, defs);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param sheet         処理対象シート
+     * @param startRowIndex 検索開始行
+     * @param defs          カラム定義
+     */
+    RowFinder(CellSource sheet, int startRowIndex, XlsColumnDefs defs) {
         this.sheet = Arg.notNull(sheet, "sheet");
+        this.startRowIndex = startRowIndex;
         this.rowIndex = startRowIndex;
         this.defs = Arg.notNull(defs);
     }
@@ -55,20 +73,27 @@ public class RowFinder {
 
     /**
      * 検索条件に合致する行を検索する。
+     * <p/>
+     * 条件には、行ごとに作成された行データが渡される。
+     * ただし、検索条件・終了条件の両方が{@link ViewCondition}の場合は、
+     * 値が要求された時点でセルを読み込む行のビューが渡される（{@link ViewCondition}を参照）。
      *
      * @param searchCondition 検索条件
      * @param endCondition    検索終了条件
      * @return 検索条件に合致した行のデータ（ヒットしない場合はnull）
      */
     public Map<String, String> findNext(Condition searchCondition, Condition endCondition) {
+        // 両方の条件がビューを受け付ける場合のみ、条件が参照したセルのみを読み込む。
+        boolean useView = searchCondition instanceof ViewCondition && endCondition instanceof ViewCondition;
+        LazyRow view = useView ? new LazyRow(sheet, defs) : null;
         for (; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-            Map<String, String> map = getRowDataAt(rowIndex);
-            if (endCondition.matches(map)) {
+            Map<String, String> row = useView ? view.moveTo(rowIndex) : getRowDataAt(rowIndex);
+            if (endCondition.matches(row)) {
                 break;  // not found
             }
-            if (searchCondition.matches(map)) {
+            if (searchCondition.matches(row)) {
                 rowIndex++;  // proceed for next search
-                return map;  // found
+                return useView ? view.materialize() : row;  // found
             }
         }
         return null;  // not found
@@ -111,6 +136,86 @@ public class RowFinder {
         return ret;
     }
 
+    /**
+     * 指定したカラムの値をキーとする索引を取得する。
+     * <p/>
+     * 索引は、検索開始行から最初の空行の直前までを対象として作成される（{@link #findAll()}と同じ範囲）。
+     * 多数のキーで検索する場合、{@link #findNext(Condition)}による線形検索を繰り返すよりも高速である。
+     * <p/>
+     * 作成した索引はブックと共にキャッシュされ、同じシート・検索開始行・カラム定義・カラムに対する
+     * 2回目以降の呼び出しではシートを走査しない。
+     * このため、索引の作成後にメモリ上のシートを変更しても、索引のキーには反映されない。
+     * 索引は行番号のみを保持し、行データは取得の都度シートから読み込む。
+     * <p/>
+     * 本メソッドは検索位置（{@link #getRowIndex()}）を変更しない。
+     *
+     * @param columnNames 索引のキーとするカラム名
+     * @return 索引
+     * @throws IllegalArgumentException カラム名が指定されていない場合、またはカラム定義に存在しない場合
+     */
+    public RowIndex getIndex(String... columnNames) throws IllegalArgumentException {
+        if (columnNames.length == 0) {
+            throw new IllegalArgumentException("columnNames must not be empty.");
+        }
+        for (String columnName : columnNames) {
+            if (!defs.isDefined(columnName)) {
+                throw new IllegalArgumentException(
+                        "column not defined. columnName=[" + columnName + "] defs=" + defs);
+            }
+        }
+        ConcurrentMap<String, RowIndex> cache = sheet.getRowIndexCache();
+        if (cache == null) {
+            return createIndex(columnNames);
+        }
+        String key = startRowIndex + ":" + defs + ":" + Arrays.toString(columnNames);
+        RowIndex index = cache.get(key);
+        if (index == null) {
+            RowIndex created = createIndex(columnNames);
+            index = cache.putIfAbsent(key, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * シートを走査して索引を作成する。
+     * 索引はブックと共にキャッシュされるため、行データは保持せずに行番号のみを保持する。
+     *
+     * @param columnNames 索引のキーとするカラム名
+     * @return 索引
+     */
+    private RowIndex createIndex(String[] columnNames) {
+        // 要素0に行番号の数、要素1以降に行番号を格納する。
+        Map<List<String>, int[]> rows = new HashMap<List<String>, int[]>();
+        for (int idx = startRowIndex; idx <= sheet.getLastRowNum(); idx++) {
+            Map<String, String> row = getRowDataAt(idx);
+            if (DEFAULT_END_CONDITION.matches(row)) {
+                break;
+            }
+            String[] key = new String[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                key[i] = row.get(columnNames[i]);
+            }
+            List<String> keyList = Arrays.asList(key);
+            int[] sameKeyRows = rows.get(keyList);
+            if (sameKeyRows == null) {
+                sameKeyRows = new int[2];
+            } else if (sameKeyRows[0] + 1 == sameKeyRows.length) {
+                sameKeyRows = Arrays.copyOf(sameKeyRows, sameKeyRows.length * 2);
+            }
+            sameKeyRows[++sameKeyRows[0]] = idx;
+            rows.put(keyList, sameKeyRows);
+        }
+        for (Map.Entry<List<String>, int[]> entry : rows.entrySet()) {
+            int[] sameKeyRows = entry.getValue();
+            entry.setValue(Arrays.copyOfRange(sameKeyRows, 1, sameKeyRows[0] + 1));
+        }
+        return new RowIndex(Collections.unmodifiableList(Arrays.asList(columnNames.clone())), rows,
+                sheet.copy(), defs);
+    }
+
     /**
      * 現在処理中の行インデックスを取得する。
      *
@@ -128,8 +233,7 @@ public class RowFinder {
      */
     private Map<String, String> getRowDataAt(int idx) {
         try {
-            HSSFRow row = sheet.getRow(idx);
-            return defs.collect(row);
+            return defs.collect(sheet, idx);
         } catch (RuntimeException e) {
             throw new RuntimeException(
                     "unexpected exception occurred in processing row at [" + idx + "]", e);
@@ -153,7 +257,7 @@ public class RowFinder {
          * 常にマッチしない検索条件。
          * シート終端まで読み取る場合の終了条件に使用する。
          */
-        Condition NEVER_MATCH = new Condition() {
+        Condition NEVER_MATCH = new ViewCondition() {
             public boolean matches(Map<String, String> row) {
                 return false;
             }
@@ -163,7 +267,7 @@ public class RowFinder {
          * 常にマッチする検索条件。
          * 全件取得する際の検索条件に使用する。
          */
-        Condition ALWAYS_MATCH = new Condition() {
+        Condition ALWAYS_MATCH = new ViewCondition() {
             public boolean matches(Map<String, String> row) {
                 return true;
             }
@@ -172,11 +276,24 @@ public class RowFinder {
         /**
          * 空行にマッチする検索条件
          */
-        Condition EMPTY_ROW = new Condition() {
+        Condition EMPTY_ROW = new ViewCondition() {
             public boolean matches(Map<String, String> row) {
                 // 全要素が空であれば空行とみなす。
                 return StringUtil.isNullOrEmpty(row.values());
             }
         };
     }
+
+    /**
+     * 行のビューを受け取る検索条件を表すインタフェース。
+     * <p/>
+     * {@link RowFinder#findNext(Condition, Condition)}の検索条件・終了条件の両方が本インタフェースを実装している場合、
+     * 条件には値が要求された時点でセルを読み込む、変更不可の行のビューが渡される。
+     * 条件が参照しないセルは読み込まれないため、当該セルの値が不正であっても検索中は例外が発生しない。
+     * ビューは次の行の判定で再利用されるため、条件の中で保持してはならない。
+     * <p/>
+     * {@link Condition}に定義されている条件は、本インタフェースを実装している。
+     */
+    public interface ViewCondition extends Condition {
+    }
 }
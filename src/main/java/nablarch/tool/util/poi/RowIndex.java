@@ -0,0 +1,129 @@
+package nablarch.tool.util.poi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指定したカラムの値をキーとする、行データの索引。
+ * <p/>
+ * {@link RowFinder#getIndex(String...)}により、シートを1度だけ走査して作成される。
+ * 作成後は、キーに合致する行を行数によらず一定時間で取得できる。
+ * <p/>
+ * 索引はキーと行番号のみを保持し、行データは取得の都度シートから読み込む。
+ * このため、索引のキーは作成時点のシートの内容を反映するが、取得される行データは取得時点のシートの内容となる。
+ * 本クラスのインスタンスは複数スレッドから同時に使用できる。
+ * 取得される行データは呼び出しごとに新たに作成される。
+ *
+ * @see RowFinder#getIndex(String...)
+ */
+public class RowIndex {
+
+    /** 索引のキーとなるカラム名 */
+    private final List<String> columnNames;
+
+    /** キーと、キーに合致する行の行番号（出現順）のペア */
+    private final Map<List<String>, int[]> rows;
+
+    /** 行データの読み込み元のシート（本インスタンス専用） */
+    private final CellSource sheet;
+
+    /** カラム定義 */
+    private final XlsColumnDefs defs;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param columnNames 索引のキーとなるカラム名
+     * @param rows        キーと、キーに合致する行の行番号（出現順）のペア
+     * @param sheet       行データの読み込み元のシート（他で使用しないこと）
+     * @param defs        カラム定義
+     */
+    RowIndex(List<String> columnNames, Map<List<String>, int[]> rows, CellSource sheet, XlsColumnDefs defs) {
+        this.columnNames = columnNames;
+        this.rows = rows;
+        this.sheet = sheet;
+        this.defs = defs;
+    }
+
+    /**
+     * キーに合致する行を検索する。
+     * 合致する行が複数存在する場合は、最初に出現した行を返却する。
+     *
+     * @param keys キー（{@link RowFinder#getIndex(String...)}で指定したカラムの順）
+     * @return 合致した行のデータ（ヒットしない場合はnull）
+     * @throws IllegalArgumentException キーの数がカラム数と一致しない場合
+     */
+    public Map<String, String> find(String... keys) throws IllegalArgumentException {
+        int[] found = rows.get(toKey(keys));
+        return (found == null) ? null : readRow(found[0]);
+    }
+
+    /**
+     * キーに合致する行を全件取得する。
+     *
+     * @param keys キー（{@link RowFinder#getIndex(String...)}で指定したカラムの順）
+     * @return 合致した行のデータ（出現順。ヒットしない場合は空のリスト）
+     * @throws IllegalArgumentException キーの数がカラム数と一致しない場合
+     */
+    public List<Map<String, String>> findAll(String... keys) throws IllegalArgumentException {
+        int[] found = rows.get(toKey(keys));
+        if (found == null) {
+            return Collections.emptyList();
+        }
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>(found.length);
+        for (int rowIndex : found) {
+            ret.add(readRow(rowIndex));
+        }
+        return ret;
+    }
+
+    /**
+     * 索引のキーとなるカラム名を取得する。
+     *
+     * @return カラム名
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * 行データを読み込む。
+     * シートの読み込みは読み込み状態を変更する場合があるため、排他制御する。
+     *
+     * @param rowIndex 行番号
+     * @return 行データ
+     */
+    private synchronized Map<String, String> readRow(int rowIndex) {
+        try {
+            return defs.collect(sheet, rowIndex);
+        } catch (RuntimeException e) {
+            throw new RuntimeException(
+                    "unexpected exception occurred in processing row at [" + rowIndex + "]", e);
+        }
+    }
+
+    /**
+     * 検索用のキーを作成する。
+     *
+     * @param keys キー
+     * @return 検索用のキー
+     * @throws IllegalArgumentException キーの数がカラム数と一致しない場合
+     */
+    private List<String> toKey(String[] keys) throws IllegalArgumentException {
+        if (keys.length != columnNames.size()) {
+            throw new IllegalArgumentException(
+                    "number of keys must be " + columnNames.size() + "."
+                            + " keys=" + Arrays.toString(keys) + " columnNames=" + columnNames);
+        }
+        return Arrays.asList(keys);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "columnNames=" + columnNames + " keys=[" + rows.size() + "]";
+    }
+}
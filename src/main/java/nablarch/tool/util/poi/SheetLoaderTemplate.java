@@ -1,13 +1,30 @@
 package nablarch.tool.util.poi;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 
 /**
  * Excelシートから表データを読み込むクラスのテンプレートクラス。
+ * <p/>
+ * .xls形式のブックに加えて、.xlsx形式（拡張子が.xlsxまたは.xlsm）のブックも読み込むことができる。
+ * .xlsx形式のブックは{@link org.apache.poi.xssf.usermodel.XSSFWorkbook}を構築せずに逐次読み込むため、
+ * {@link #getSheet(String)}・{@link #getTargetSheet()}は使用できない。
+ * <p/>
+ * {@link #loadSheets(SheetHandler)}により、複数のシートを並行して読み込むことができる。
+ * 並行読み込み時のスレッドセーフ性については{@link #loadSheets(Collection, SheetHandler)}を参照。
  *
  * @author T.Kawasaki
  */
@@ -16,9 +33,12 @@ public abstract class SheetLoaderTemplate {
     /** ブックへのパス */
     private String pathToBook;
 
-    /** 読み込んだブック */
+    /** 読み込んだブック（.xls形式の場合） */
     private HSSFWorkbook book;
 
+    /** 読み込んだブック（.xlsx形式の場合） */
+    private XlsxBook xlsxBook;
+
     /** 明示的に指定しない場合に読み込み対象となるシート名 */
     private String defaultSheetName;
 
@@ -28,6 +48,9 @@ public abstract class SheetLoaderTemplate {
     /** カラム定義 */
     private XlsColumnDefs columnDefs;
 
+    /** シートの並行読み込みに使用する{@link Executor}（未設定の場合はnull） */
+    private Executor executor;
+
     /**
      * 読み込み対象ブックのパスを取得する。
      *
@@ -44,7 +67,14 @@ public abstract class SheetLoaderTemplate {
      */
     public void setPathToBook(String pathToBook) {
         this.pathToBook = pathToBook;
-        this.book = PoiUtil.getHssfWorkbook(pathToBook);
+        File file = new File(pathToBook);
+        if (XlsxBook.isXlsx(file)) {
+            this.xlsxBook = new XlsxBook(file);
+            this.book = null;
+        } else {
+            this.book = PoiUtil.getHssfWorkbook(file);
+            this.xlsxBook = null;
+        }
     }
 
     /**
@@ -83,6 +113,17 @@ public abstract class SheetLoaderTemplate {
         this.columnDefs = columnDefs;
     }
 
+    /**
+     * シートの並行読み込みに使用する{@link Executor}を設定する。
+     * 設定しない場合は、読み込みごとにスレッドプール（スレッド数はシート数とプロセッサ数の小さいほう）を作成し、
+     * 読み込みの完了後に終了する。
+     *
+     * @param executor シートの並行読み込みに使用する{@link Executor}
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * 処理対象となるシート名を取得する。
      *
@@ -104,12 +145,16 @@ public abstract class SheetLoaderTemplate {
     /**
      * 行検索クラスを取得する。
      * 検索対象となるシートは{@link #setSheetName} で設定したシートとなる。
+     * .xls形式のブックの場合、シートは{@link #getTargetSheet()}から取得する。
      *
      * @return 行検索クラス
      */
     protected RowFinder getRowFinder() {
-        HSSFSheet targetSheet = getTargetSheet();
-        return getRowFinder(targetSheet);
+        if (xlsxBook != null) {
+            // .xlsx形式のブックは{@link HSSFSheet}を持たないため、シート名で検索する。
+            return getRowFinder(defaultSheetName);
+        }
+        return new RowFinder(new HssfCellSource(getTargetSheet()), startRowIndex, columnDefs);
     }
 
     /**
@@ -119,18 +164,141 @@ public abstract class SheetLoaderTemplate {
      * @return 行検索クラス
      */
     protected RowFinder getRowFinder(String sheetName) {
-        HSSFSheet targetSheet = getSheet(sheetName);
-        return getRowFinder(targetSheet);
+        CellSource targetSheet = (xlsxBook == null)
+                ? new HssfCellSource(getSheet(sheetName))
+                : xlsxBook.getSheet(sheetName);
+        return new RowFinder(targetSheet, startRowIndex, columnDefs);
     }
 
     /**
-     * 行検索クラスを取得する。
+     * ブックに格納された全シートを並行して読み込む。
      *
-     * @param sheet 検索対象シート
-     * @return 行検索クラス
+     * @param handler シートごとの読み込み処理
+     * @param <T>     シートごとの読み込み結果の型
+     * @return シート名と読み込み結果のペア（ブック内のシート順に順序付けされている）
+     * @see #loadSheets(Collection, SheetHandler)
+     */
+    protected <T> Map<String, T> loadSheets(SheetHandler<T> handler) {
+        return loadSheets(getSheetNames(), handler);
+    }
+
+    /**
+     * 指定したシートを並行して読み込む。
+     * <p/>
+     * シートごとに{@link RowFinder}を作成し、{@link #setExecutor(Executor)}で設定した
+     * {@link Executor}上で{@link SheetHandler#load(String, RowFinder)}を呼び出す。
+     * 全シートの読み込みが完了するまで、呼び出し元のスレッドは待機する。
+     * <p/>
+     * スレッドセーフ性について：
+     * <ul>
+     * <li>ブック（.xls形式の{@link HSSFWorkbook}）は全シートで共有される。
+     * 読み込み中にブック・シートを変更してはならない（セルへの書き込み・シートの追加等）。
+     * 参照のみであれば、異なるシートを複数スレッドから同時に読み込むことができる。</li>
+     * <li>数式の評価はブックごとに1つの評価器で行われ、評価器の使用は直列化される。</li>
+     * <li>{@link RowFinder}はシートごとに作成され、1つのスレッドからのみ使用される。
+     * {@link SheetHandler}の外へ持ち出してはならない。</li>
+     * <li>{@link SheetHandler}は複数スレッドから同時に呼び出される。
+     * 実装クラスが状態を共有する場合は、実装クラスの責任で同期をとること。</li>
+     * <li>.xlsx形式のブックは、シートごとに独立して読み込まれる。</li>
+     * </ul>
+     * いずれかのシートの読み込みに失敗した場合、全シートの処理の完了を待ち合わせた後、
+     * 最初に失敗したシートの例外を原因とする例外を送出する（他のシートの例外は抑制された例外として付加する）。
+     *
+     * @param sheetNames 読み込み対象のシート名
+     * @param handler    シートごとの読み込み処理
+     * @param <T>        シートごとの読み込み結果の型
+     * @return シート名と読み込み結果のペア（引数で指定したシート名の順に順序付けされている）
+     * @throws RuntimeException いずれかのシートの読み込みに失敗した場合、または待機中に割り込まれた場合
+     */
+    protected <T> Map<String, T> loadSheets(Collection<String> sheetNames, final SheetHandler<T> handler)
+            throws RuntimeException {
+        Map<String, FutureTask<T>> tasks = new LinkedHashMap<String, FutureTask<T>>();
+        for (final String sheetName : sheetNames) {
+            if (tasks.containsKey(sheetName)) {
+                continue;
+            }
+            FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+                public T call() {
+                    return handler.load(sheetName, getRowFinder(sheetName));
+                }
+            });
+            tasks.put(sheetName, task);
+        }
+        // シートの読み込みはブロッキングI/Oを伴うため、共有のスレッドプールは使用しない。
+        ExecutorService ownExecutor = null;
+        Executor exec = executor;
+        if (exec == null && !tasks.isEmpty()) {
+            ownExecutor = Executors.newFixedThreadPool(
+                    Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+            exec = ownExecutor;
+        }
+        try {
+            for (FutureTask<T> task : tasks.values()) {
+                exec.execute(task);
+            }
+            return awaitAll(tasks);
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 全シートの読み込み完了を待ち合わせる。
+     *
+     * @param tasks シート名と読み込みタスクのペア
+     * @param <T>   シートごとの読み込み結果の型
+     * @return シート名と読み込み結果のペア
+     * @throws RuntimeException いずれかのシートの読み込みに失敗した場合、または待機中に割り込まれた場合
      */
-    private RowFinder getRowFinder(HSSFSheet sheet) {
-        return new RowFinder(sheet, startRowIndex, columnDefs);
+    private <T> Map<String, T> awaitAll(Map<String, FutureTask<T>> tasks) throws RuntimeException {
+        Map<String, T> results = new LinkedHashMap<String, T>(tasks.size() * 2);
+        RuntimeException failure = null;
+        for (Map.Entry<String, FutureTask<T>> entry : tasks.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                RuntimeException wrapped = new RuntimeException(
+                        "failed to load sheet. sheetName=[" + entry.getKey() + "] book=[" + pathToBook + "]",
+                        e.getCause());
+                if (failure == null) {
+                    failure = wrapped;
+                } else {
+                    failure.addSuppressed(wrapped);
+                }
+            } catch (InterruptedException e) {
+                for (FutureTask<T> task : tasks.values()) {
+                    task.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while loading sheets. book=[" + pathToBook + "]", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * シートごとの読み込み処理を表すインタフェース。
+     * <p/>
+     * 実装クラスは、複数スレッドから同時に呼び出されることを前提としなければならない。
+     *
+     * @param <T> 読み込み結果の型
+     * @see SheetLoaderTemplate#loadSheets(Collection, SheetHandler)
+     */
+    public interface SheetHandler<T> {
+
+        /**
+         * シートを読み込む。
+         *
+         * @param sheetName シート名
+         * @param finder    シートの行検索クラス（本メソッド内でのみ使用すること）
+         * @return 読み込み結果
+         */
+        T load(String sheetName, RowFinder finder);
     }
 
     /**
@@ -149,6 +317,9 @@ public abstract class SheetLoaderTemplate {
      * @return 全シート名
      */
     protected List<String> getSheetNames() {
+        if (xlsxBook != null) {
+            return new ArrayList<String>(xlsxBook.getSheetNames());
+        }
         int numberOfSheets = book.getNumberOfSheets();
         List<String> sheetNames = new ArrayList<String>(numberOfSheets);
         for (int i = 0; i < numberOfSheets; i++) {
@@ -163,8 +334,13 @@ public abstract class SheetLoaderTemplate {
      *
      * @param name シート名
      * @return シート
+     * @throws IllegalStateException .xlsx形式のブックを読み込んでいる場合
      */
-    protected HSSFSheet getSheet(String name) {
+    protected HSSFSheet getSheet(String name) throws IllegalStateException {
+        if (xlsxBook != null) {
+            throw new IllegalStateException(
+                    "HSSFSheet is not available for .xlsx book. book=[" + pathToBook + "]");
+        }
         HSSFSheet sheet = book.getSheet(name);
         if (sheet == null) {
             throw new IllegalArgumentException("could not find sheet [" + name + "] in the book.");
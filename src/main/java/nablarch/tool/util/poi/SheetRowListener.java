@@ -0,0 +1,24 @@
+package nablarch.tool.util.poi;
+
+import java.util.List;
+
+/**
+ * シートを先頭から逐次読み込む際に、1行分のセル値を受け取るインタフェース。
+ * <p/>
+ * 行は行番号の昇順に通知される。セルが1つも存在しない行は通知されない。
+ */
+interface SheetRowListener {
+
+    /**
+     * 1行分のセル値を受け取る。
+     * <p/>
+     * セル値は列番号（0オリジン）をインデックスとするリストで渡される。
+     * セルが存在しない列の要素はnullとなる。
+     * リストは次の行の読み込みで再利用されるため、呼び出し元で保持してはならない。
+     *
+     * @param rowIndex 行番号（0オリジン）
+     * @param cells    セル値
+     * @return 読み込みを継続する場合、真
+     */
+    boolean onRow(int rowIndex, List<String> cells);
+}
@@ -4,6 +4,7 @@ import nablarch.core.util.StringUtil;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -27,6 +28,10 @@ import java.util.Map;
  * <pre>
  * [{key2=12, key1=11}, {key2=22, key1=21}]
  * </pre>
+ * 本クラスはブック全体をメモリ上に展開する。
+ * 行数の多いシートを読み込む場合は、{@link StreamingTableReader}を使用すること。
+ * <p/>
+ * .xlsx形式（拡張子が.xlsxまたは.xlsm）のブックは、{@link #read(File, String)}で読み込むことができる。
  *
  * @author T.Kawasaki
  */
@@ -41,6 +46,9 @@ public class SimpleTableReader {
     /** カラムの読み取り上限 */
     int endColumn = 255;     // SUPPRESS CHECKSTYLE サブクラスに対してカプセル化不要なため
 
+    /** 数式セルを評価せず、ブックに保存されている計算結果を読み込むか */
+    private boolean useCachedFormulaResult = false;
+
 
     /**
      * ヘッダ行の行番号を設定する。
@@ -76,6 +84,22 @@ public class SimpleTableReader {
         return this;
     }
 
+    /**
+     * 数式セルの読み込み方法を設定する。
+     * <p/>
+     * 真を設定した場合、数式セルを評価せず、ブックに保存されている計算結果（Excelで最後に計算された値）を読み込む。
+     * 評価のコストがかからない代わりに、POIで更新したセルは計算結果に反映されない。
+     * 偽を設定した場合（デフォルト）、数式セルを評価する。
+     * .xlsx形式のブックは、本設定に関わらず保存されている計算結果を読み込む。
+     *
+     * @param useCachedFormulaResult 保存されている計算結果を読み込む場合、真
+     * @return 本インスタンス自身
+     */
+    public SimpleTableReader setUseCachedFormulaResult(boolean useCachedFormulaResult) {
+        this.useCachedFormulaResult = useCachedFormulaResult;
+        return this;
+    }
+
     /** 読み取り時の事前条件をチェックする。 */
     private void checkPreConditions() {
         if (startColumn > endColumn) {
@@ -107,6 +131,116 @@ public class SimpleTableReader {
         return ret;
     }
 
+    /**
+     * ブックのファイルを指定してテーブルを読み込む。
+     * <p/>
+     * .xls形式のブックは{@link PoiUtil#getHssfWorkbook(File)}で取得したシートを{@link #read(HSSFSheet)}で読み込む。
+     * .xlsx形式のブックは{@link org.apache.poi.xssf.usermodel.XSSFWorkbook}を構築せずに、
+     * セルの文字列表現のみを読み込む。
+     * この場合、{@link #getLastCellNum(HSSFRow)}は使用されず、ヘッダ行は{@link #setEndColumn(int)}で設定した位置まで読み取る。
+     *
+     * @param book      読み込み対象のブック
+     * @param sheetName 読み込み対象のシート名
+     * @return 読み込み結果
+     * @throws IllegalArgumentException 対象シートがブックに存在しない場合
+     */
+    public List<Map<String, String>> read(File book, String sheetName) throws IllegalArgumentException {
+        if (!XlsxBook.isXlsx(book)) {
+            HSSFSheet sheet = PoiUtil.getHssfWorkbook(book).getSheet(sheetName);
+            if (sheet == null) {
+                throw new IllegalArgumentException("could not find sheet [" + sheetName + "] in the book.");
+            }
+            return read(sheet);
+        }
+        checkPreConditions();
+        CellSource sheet = new XlsxBook(book).getSheet(sheetName);
+        List<String> head = readHeader(sheet);
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>();
+        for (int rowIndex = headerRowNum + 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            Map<String, String> map = toMap(sheet, rowIndex, head);
+            if (map == null) {
+                break;
+            }
+            ret.add(map);
+        }
+        return ret;
+    }
+
+    /**
+     * テーブルを読み込み、行ごとに任意の型へ変換する。
+     * <p/>
+     * 読み込む範囲は{@link #read(HSSFSheet)}と同じである。
+     * 行データをMapに変換せずに{@link TypedRow}経由で参照するため、
+     * 数値・真偽値のカラムを文字列を経由せずに取得できる。
+     *
+     * @param sheet  読み込み対象のシート
+     * @param mapper 行の変換処理
+     * @param <T>    変換後の型
+     * @return 読み込み結果
+     */
+    public <T> List<T> read(HSSFSheet sheet, RowMapper<T> mapper) {
+        checkPreConditions();
+        Map<String, Integer> columns = readHeaderIndex(sheet);
+        TypedRow typedRow = new TypedRow(columns, useCachedFormulaResult);
+        List<T> ret = new ArrayList<T>();
+        for (int rowIndex = headerRowNum + 1;; rowIndex++) {
+            HSSFRow row = sheet.getRow(rowIndex);
+            if (row == null || !hasValue(row, columns)) {
+                break;
+            }
+            ret.add(mapper.map(typedRow.setRow(row)));
+        }
+        return ret;
+    }
+
+    /**
+     * 行データを任意の型へ変換するインタフェース。
+     *
+     * @param <T> 変換後の型
+     */
+    public interface RowMapper<T> {
+
+        /**
+         * 1行分のデータを変換する。
+         *
+         * @param row 行データ（本メソッドの呼び出し後は再利用されるため、保持してはならない）
+         * @return 変換結果
+         */
+        T map(TypedRow row);
+    }
+
+    /**
+     * 行が値を保持しているか判定する。
+     *
+     * @param row     行データ
+     * @param columns カラム名と列番号のペア
+     * @return いずれかのカラムが値を保持している場合、真
+     */
+    private boolean hasValue(HSSFRow row, Map<String, Integer> columns) {
+        for (Integer columnIndex : columns.values()) {
+            if (PoiUtil.hasValue(row.getCell(columnIndex), useCachedFormulaResult)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ヘッダ行を読み取り、カラム名と列番号のペアを作成する。
+     * 列番号は{@link #read(HSSFSheet)}で各カラムの値を読み込む位置と同じである。
+     *
+     * @param sheet 読み取り対象のシート
+     * @return カラム名と列番号（0オリジン）のペア（カラム順に順序付けされている）
+     */
+    private Map<String, Integer> readHeaderIndex(HSSFSheet sheet) {
+        List<String> header = readHeader(sheet);
+        Map<String, Integer> columns = new LinkedHashMap<String, Integer>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i), i + startColumn);
+        }
+        return columns;
+    }
+
     /**
      * 行データをMapに変換する。
      *
@@ -122,13 +256,32 @@ public class SimpleTableReader {
         boolean hasValue = false;
         for (int i = 0; i < header.size(); i++) {
             String key = header.get(i);
-            String value = PoiUtil.toString(row.getCell(i + startColumn));
+            String value = PoiUtil.toString(row.getCell(i + startColumn), useCachedFormulaResult);
             hasValue = hasValue || StringUtil.hasValue(value);
             ret.put(key, value);
         }
         return (hasValue) ? ret : null;
     }
 
+    /**
+     * 行データをMapに変換する。
+     *
+     * @param sheet    読み取り対象のシート
+     * @param rowIndex 行番号
+     * @param header   ヘッダー
+     * @return 変換後のMap(行データが空の場合はnullを返却)
+     */
+    private LinkedHashMap<String, String> toMap(CellSource sheet, int rowIndex, List<String> header) {
+        LinkedHashMap<String, String> ret = new LinkedHashMap<String, String>();
+        boolean hasValue = false;
+        for (int i = 0; i < header.size(); i++) {
+            String value = sheet.toString(rowIndex, i + startColumn);
+            hasValue = hasValue || StringUtil.hasValue(value);
+            ret.put(header.get(i), value);
+        }
+        return (hasValue) ? ret : null;
+    }
+
     /**
      * ヘッダ行を読み取る。
      *
@@ -140,7 +293,24 @@ public class SimpleTableReader {
         int lastCellNum = getLastCellNum(row);
         List<String> headerColumns = new ArrayList<String>(lastCellNum);
         for (int i = startColumn; i < lastCellNum; i++) {
-            String cellValue = PoiUtil.toString(row.getCell(i));
+            String cellValue = PoiUtil.toString(row.getCell(i), useCachedFormulaResult);
+            if (StringUtil.hasValue(cellValue)) {
+                headerColumns.add(cellValue);
+            }
+        }
+        return headerColumns;
+    }
+
+    /**
+     * ヘッダ行を読み取る。
+     *
+     * @param sheet 読み取り対象のシート
+     * @return ヘッダ行
+     */
+    private List<String> readHeader(CellSource sheet) {
+        List<String> headerColumns = new ArrayList<String>();
+        for (int i = startColumn; i < endColumn; i++) {
+            String cellValue = sheet.toString(headerRowNum, i);
             if (StringUtil.hasValue(cellValue)) {
                 headerColumns.add(cellValue);
             }
@@ -16,6 +16,8 @@ import java.util.Set;
  *
  * 本クラスではメモリ上の書き込み操作のみを行う。
  * ファイルへの永続化が必要な場合は、別途実施すること。
+ * 書き込み後は、書き込んだ値が数式の評価結果に反映されるよう、
+ * ブックの数式評価結果のキャッシュを破棄する（{@link PoiUtil#clearFormulaResults}）。
  *
  * @author T.Kawasaki
  */
@@ -60,6 +62,7 @@ public class SimpleTableWriter {
                 cellToWrite.setCellValue(e.get(headCol));
             }
         }
+        PoiUtil.clearFormulaResults(targetSheet.getWorkbook());
     }
 
     /**
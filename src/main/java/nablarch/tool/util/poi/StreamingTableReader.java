@@ -0,0 +1,196 @@
+package nablarch.tool.util.poi;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.util.StringUtil;
+
+/**
+ * ブック全体をメモリ上に展開せずに、表を逐次読み込むクラス。
+ * <p/>
+ * 読み込み結果は{@link SimpleTableReader}と同じく、ヘッダ行の値をキーとするMapとなる。
+ * {@link SimpleTableReader}と異なり、1行読み込むごとに{@link RowHandler}へ通知するため、
+ * 行数の多いシートでもヒープ使用量は1行分に抑えられる。
+ * <p/>
+ * ヘッダ行の直後から、空行（全カラムが空）または行が存在しない位置の直前までを表とみなす。
+ * 数式セルは再評価せず、ブックに保存されている計算結果を読み込む。
+ * <p/>
+ * .xls形式に加えて、.xlsx形式（拡張子が.xlsxまたは.xlsm）のブックも読み込むことができる。
+ */
+public class StreamingTableReader {
+
+    /** ヘッダ行の行番号（０オリジン） */
+    private int headerRowNum = 0;
+
+    /** カラムのオフセット（０オリジン） */
+    private int startColumn = 0;
+
+    /** カラムの読み取り上限 */
+    private int endColumn = 255;
+
+    /**
+     * ヘッダ行の行番号を設定する。
+     *
+     * @param headerRowNum ヘッダ行の行番号（０オリジン）
+     * @return 本インスタンス自身
+     */
+    public StreamingTableReader setHeaderRowNum(int headerRowNum) {
+        this.headerRowNum = headerRowNum;
+        return this;
+    }
+
+    /**
+     * カラム読み取り終了位置を設定する。
+     *
+     * @param endColumn カラム読み取り終了位置（０オリジン）
+     * @return 本インスタンス自身
+     */
+    public StreamingTableReader setEndColumn(int endColumn) {
+        this.endColumn = endColumn;
+        return this;
+    }
+
+    /**
+     * カラム読み取り開始位置を設定する。
+     * （デフォルトは0）
+     *
+     * @param startColumn カラム読み取り開始位置（０オリジン）
+     * @return 本インスタンス自身
+     */
+    public StreamingTableReader setStartColumn(int startColumn) {
+        this.startColumn = startColumn;
+        return this;
+    }
+
+    /** 読み取り時の事前条件をチェックする。 */
+    private void checkPreConditions() {
+        if (startColumn > endColumn) {
+            throw new IllegalStateException(
+                    "endColumn must be bigger than startColumn."
+                            + " startColumn=[" + startColumn + "]"
+                            + " endColumn=[" + endColumn + "]");
+        }
+    }
+
+    /**
+     * テーブルを読み込む。
+     *
+     * @param book      読み込み対象のブック
+     * @param sheetName 読み込み対象のシート名
+     * @param handler   読み込んだ行の通知先
+     * @throws IllegalArgumentException 対象シートがブックに存在しない場合
+     */
+    public void read(File book, String sheetName, RowHandler handler) throws IllegalArgumentException {
+        checkPreConditions();
+        TableAssembler assembler = new TableAssembler(handler);
+        if (XlsxBook.isXlsx(book)) {
+            new XlsxSheetEventReader(book, sheetName, assembler).read();
+        } else {
+            new HssfSheetEventReader(book, sheetName, assembler).read();
+        }
+    }
+
+    /**
+     * 読み込んだ行を受け取るインタフェース。
+     */
+    public interface RowHandler {
+
+        /**
+         * 1行分のデータを受け取る。
+         *
+         * @param row 行データ（ヘッダ行の値をキーとし、カラム順に順序付けされている）
+         */
+        void handle(Map<String, String> row);
+    }
+
+    /**
+     * 逐次通知されるセル値から、ヘッダ行と行データを組み立てるクラス。
+     */
+    private final class TableAssembler implements SheetRowListener {
+
+        /** 行データの通知先 */
+        private final RowHandler handler;
+
+        /** ヘッダ（未読込の場合はnull） */
+        private List<String> header;
+
+        /** 次に読み込むべき行番号 */
+        private int nextRowIndex;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param handler 行データの通知先
+         */
+        private TableAssembler(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        /** {@inheritDoc} */
+        public boolean onRow(int rowIndex, List<String> cells) {
+            if (header == null) {
+                if (rowIndex < headerRowNum) {
+                    return true;     // ヘッダ行より前の行は読み飛ばす。
+                }
+                if (rowIndex > headerRowNum) {
+                    return false;    // ヘッダ行が存在しない。
+                }
+                header = readHeader(cells);
+                nextRowIndex = headerRowNum + 1;
+                return true;
+            }
+            if (rowIndex != nextRowIndex) {
+                return false;        // 行が存在しない位置で終了
+            }
+            Map<String, String> row = toMap(cells);
+            if (row == null) {
+                return false;        // 空行で終了
+            }
+            handler.handle(row);
+            nextRowIndex++;
+            return true;
+        }
+
+        /**
+         * ヘッダ行を読み取る。
+         *
+         * @param cells ヘッダ行のセル値
+         * @return ヘッダ
+         */
+        private List<String> readHeader(List<String> cells) {
+            int lastCellNum = Math.min(cells.size(), endColumn);
+            List<String> headerColumns = new ArrayList<String>(Math.max(lastCellNum - startColumn, 0));
+            for (int i = startColumn; i < lastCellNum; i++) {
+                String cellValue = cells.get(i);
+                if (StringUtil.hasValue(cellValue)) {
+                    headerColumns.add(cellValue);
+                }
+            }
+            return headerColumns;
+        }
+
+        /**
+         * 行データをMapに変換する。
+         *
+         * @param cells 行のセル値
+         * @return 変換後のMap(行データが空の場合はnullを返却)
+         */
+        private Map<String, String> toMap(List<String> cells) {
+            Map<String, String> ret = new LinkedHashMap<String, String>();
+            boolean hasValue = false;
+            for (int i = 0; i < header.size(); i++) {
+                int columnIndex = i + startColumn;
+                String value = (columnIndex < cells.size()) ? cells.get(columnIndex) : null;
+                if (value == null) {
+                    value = "";
+                }
+                hasValue = hasValue || StringUtil.hasValue(value);
+                ret.put(header.get(i), value);
+            }
+            return (hasValue) ? ret : null;
+        }
+    }
+}
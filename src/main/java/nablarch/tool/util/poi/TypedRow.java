@@ -0,0 +1,150 @@
+package nablarch.tool.util.poi;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+
+/**
+ * カラム名を指定して、行のセル値を型付きで取得するクラス。
+ * <p/>
+ * 行データをMapに変換せず、{@link HSSFRow}のセルを直接参照する。
+ * 数値・真偽値はボクシングせずにプリミティブ型で取得できる。
+ * <p/>
+ * 本クラスのインスタンスは、読み込み処理の中で行ごとに再利用される。
+ * そのため、{@link SimpleTableReader.RowMapper#map(TypedRow)}の呼び出し後に
+ * インスタンスを保持してはならない。
+ *
+ * @see SimpleTableReader#read(org.apache.poi.hssf.usermodel.HSSFSheet, SimpleTableReader.RowMapper)
+ */
+public class TypedRow {
+
+    /** カラム名と列番号（0オリジン）のペア */
+    private final Map<String, Integer> columns;
+
+    /** 数式セルを評価せず、ブックに保存されている計算結果を読み込むか */
+    private final boolean useCachedFormulaResult;
+
+    /** 参照中の行 */
+    private HSSFRow row;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param columns                カラム名と列番号（0オリジン）のペア
+     * @param useCachedFormulaResult 数式を評価せず、保存されている計算結果を読み込む場合、真
+     */
+    TypedRow(Map<String, Integer> columns, boolean useCachedFormulaResult) {
+        this.columns = columns;
+        this.useCachedFormulaResult = useCachedFormulaResult;
+    }
+
+    /**
+     * 参照する行を設定する。
+     *
+     * @param row 行
+     * @return 本インスタンス自身
+     */
+    TypedRow setRow(HSSFRow row) {
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * 行番号を取得する。
+     *
+     * @return 行番号（0オリジン）
+     */
+    public int getRowNum() {
+        return row.getRowNum();
+    }
+
+    /**
+     * カラム名の一覧を取得する。
+     *
+     * @return カラム名（カラム順に順序付けされている）
+     */
+    public Set<String> getColumnNames() {
+        return columns.keySet();
+    }
+
+    /**
+     * セルの値を文字列として取得する。
+     *
+     * @param columnName カラム名
+     * @return セルの値（{@link PoiUtil#toString(HSSFCell)}と同じ表現）
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     */
+    public String getString(String columnName) throws IllegalArgumentException {
+        return PoiUtil.toString(getCell(columnName), useCachedFormulaResult);
+    }
+
+    /**
+     * セルの値を数値として取得する。
+     *
+     * @param columnName カラム名
+     * @return セルの値
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     * @see PoiUtil#getDouble(HSSFCell)
+     */
+    public double getDouble(String columnName) throws IllegalArgumentException {
+        return PoiUtil.getDouble(getCell(columnName), useCachedFormulaResult);
+    }
+
+    /**
+     * セルの値を整数として取得する。
+     *
+     * @param columnName カラム名
+     * @return セルの値
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     * @see PoiUtil#getLong(HSSFCell)
+     */
+    public long getLong(String columnName) throws IllegalArgumentException {
+        return PoiUtil.getLong(getCell(columnName), useCachedFormulaResult);
+    }
+
+    /**
+     * セルの値を真偽値として取得する。
+     *
+     * @param columnName カラム名
+     * @return セルの値
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     * @see PoiUtil#getBoolean(HSSFCell)
+     */
+    public boolean getBoolean(String columnName) throws IllegalArgumentException {
+        return PoiUtil.getBoolean(getCell(columnName), useCachedFormulaResult);
+    }
+
+    /**
+     * セルが値を保持しているか判定する。
+     *
+     * @param columnName カラム名
+     * @return 値を保持している場合、真
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     */
+    public boolean hasValue(String columnName) throws IllegalArgumentException {
+        return PoiUtil.hasValue(getCell(columnName), useCachedFormulaResult);
+    }
+
+    /**
+     * カラム名に対応するセルを取得する。
+     *
+     * @param columnName カラム名
+     * @return セル（存在しない場合はnull）
+     * @throws IllegalArgumentException カラム名が存在しない場合
+     */
+    private HSSFCell getCell(String columnName) throws IllegalArgumentException {
+        Integer columnIndex = columns.get(columnName);
+        if (columnIndex == null) {
+            throw new IllegalArgumentException(
+                    "column not found. columnName=[" + columnName + "] columns=" + columns.keySet());
+        }
+        return row.getCell(columnIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "row=[" + row.getRowNum() + "] columns=" + columns;
+    }
+}
@@ -0,0 +1,401 @@
+package nablarch.tool.util.poi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nablarch.core.util.FileUtil;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+
+/**
+ * 一度読み込んだブック（{@link HSSFWorkbook}）のキャッシュ。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ * 複数スレッドから同一ファイルが同時に要求された場合、読み込みは1度だけ行われ、
+ * 他のスレッドはその読み込み完了を待ち合わせる。
+ * <p/>
+ * キャッシュの上限はエントリ数ではなく、ブックがヒープ上に占める推定サイズ（バイト数）で指定する。
+ * 推定サイズの合計が上限を超えた場合、最も長い間参照されていないブックから順に破棄する。
+ * ただし、直前に読み込んだブック自身は、上限を超える場合でも破棄しない。
+ * <p/>
+ * キャッシュ済みのブックを返却する際、ファイルの最終更新日時とサイズを確認し、
+ * 読み込み時から変更されている場合はファイルを読み込み直す。
+ * 既に返却済みのブックのインスタンスは更新されない。
+ * <p/>
+ * キャッシュ済みのブックごとに1つの{@link FormulaEvaluator}を保持する。
+ * 数式の評価結果は評価器内にキャッシュされ、ブックと共に破棄される。
+ * 同様に、シートごとに作成した索引（{@link RowIndex}）もブックと共に保持・破棄される。
+ * 索引は行データを保持せずキーと行番号のみを保持するため、推定ヒープ使用量には含めない。
+ */
+class WorkbookCache {
+
+    /**
+     * ファイルサイズに対する、読み込み後のブックのヒープ使用量の倍率。
+     * （HSSFのオブジェクトモデルは、概ねファイルサイズの数倍から10倍程度のヒープを使用する）
+     */
+    static final int HEAP_RATIO = 8;
+
+    /** キャッシュ容量（推定ヒープ使用量の上限バイト数） */
+    private final long capacity;
+
+    /** ファイルのURIとエントリのペア */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /** ブックとエントリのペア（ブックのインスタンスで同一性を判定する） */
+    private final ConcurrentMap<HSSFWorkbook, Entry> bookEntries = new ConcurrentHashMap<HSSFWorkbook, Entry>();
+
+    /** 参照順序を採番するための論理時計 */
+    private final AtomicLong clock = new AtomicLong();
+
+    /** キャッシュ済みブックの推定ヒープ使用量の合計 */
+    private final AtomicLong weight = new AtomicLong();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param capacity キャッシュ容量（推定ヒープ使用量の上限バイト数）
+     */
+    WorkbookCache(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity must be positive. capacity=[" + capacity + "]");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * ブックを取得する。
+     * キャッシュに存在しない場合は、ファイルから読み込みキャッシュに格納する。
+     *
+     * @param file ファイル
+     * @return ブック
+     */
+    HSSFWorkbook get(File file) {
+        String uri = file.toURI().toString();
+        Entry entry = entries.get(uri);
+        if (entry != null && entry.isModified(file)) {
+            // 読み込み後にファイルが更新されているため、読み込み直す。
+            remove(entry);
+            entry = null;
+        }
+        if (entry == null) {
+            Entry created = new Entry(uri, file);
+            entry = entries.putIfAbsent(uri, created);
+            if (entry == null) {
+                // 自スレッドが読み込みを担当する。
+                entry = created;
+                entry.task.run();
+                if (entry.isLoaded()) {
+                    evict(entry);
+                } else {
+                    entries.remove(uri, entry);
+                }
+            }
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.await();
+    }
+
+    /**
+     * キャッシュを全て破棄する。
+     */
+    void clear() {
+        for (Entry entry : entries.values()) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * キャッシュ済みのブックに対応する数式評価器を取得する。
+     * 評価器は初回呼び出し時に生成され、ブックがキャッシュから破棄されるまで再利用される。
+     * <p/>
+     * 評価器はスレッドセーフではないため、使用する際は評価器自身で同期をとること。
+     *
+     * @param book ブック
+     * @return 数式評価器（ブックがキャッシュされていない場合はnull）
+     */
+    FormulaEvaluator getFormulaEvaluator(HSSFWorkbook book) {
+        Entry entry = bookEntries.get(book);
+        return (entry == null) ? null : entry.getFormulaEvaluator();
+    }
+
+    /**
+     * キャッシュ済みのブックについて、シートの索引の格納先を取得する。
+     *
+     * @param book      ブック
+     * @param sheetName シート名
+     * @return 索引の格納先（ブックがキャッシュされていない場合はnull）
+     */
+    ConcurrentMap<String, RowIndex> getRowIndexes(HSSFWorkbook book, String sheetName) {
+        Entry entry = bookEntries.get(book);
+        return (entry == null) ? null : entry.getRowIndexes(sheetName);
+    }
+
+    /**
+     * 現在キャッシュされているブックの数を取得する。
+     *
+     * @return ブックの数
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * キャッシュ済みブックの推定ヒープ使用量の合計を取得する。
+     *
+     * @return 推定ヒープ使用量（バイト）
+     */
+    long weight() {
+        return weight.get();
+    }
+
+    /**
+     * ファイルからブックを読み込む。
+     * 後でドキュメントのファイルパスを取得できるように、タイトル領域にパスを設定する。
+     *
+     * @param file ファイル
+     * @return ブック
+     */
+    HSSFWorkbook load(File file) {
+        InputStream in = FileUtil.getResource(file.toURI().toString());
+        try {
+            HSSFWorkbook book = new HSSFWorkbook(new POIFSFileSystem(in));
+            // 後でドキュメントのファイルパスを取得できるように、タイトル領域にパスを設定する。
+            book.getSummaryInformation().setTitle(file.getAbsolutePath());
+            return book;
+        } catch (IOException e) {
+            throw new RuntimeException("test data file open failed.", e);
+        } finally {
+            FileUtil.closeQuietly(in);
+        }
+    }
+
+    /**
+     * 読み込み後のブックのヒープ使用量を推定する。
+     *
+     * @param file ファイル
+     * @return 推定ヒープ使用量（バイト）
+     */
+    long estimateWeight(File file) {
+        return file.length() * HEAP_RATIO;
+    }
+
+    /**
+     * 推定ヒープ使用量の合計が容量を超えている間、最も長い間参照されていないエントリを破棄する。
+     *
+     * @param loaded 直前に読み込んだエントリ（破棄対象外）
+     */
+    private void evict(Entry loaded) {
+        while (weight.get() > capacity) {
+            Entry eldest = null;
+            for (Entry e : entries.values()) {
+                if (e == loaded || !e.isLoaded()) {
+                    continue;
+                }
+                if (eldest == null || e.lastAccess < eldest.lastAccess) {
+                    eldest = e;
+                }
+            }
+            if (eldest == null) {
+                return;   // 破棄できるエントリが存在しない。
+            }
+            remove(eldest);
+        }
+    }
+
+    /**
+     * エントリを破棄する。
+     *
+     * @param entry 破棄対象のエントリ
+     */
+    private void remove(Entry entry) {
+        if (entries.remove(entry.uri, entry)) {
+            entry.unregister();
+        }
+    }
+
+    /**
+     * キャッシュのエントリ。
+     */
+    private final class Entry {
+
+        /** ファイルのURI */
+        private final String uri;
+
+        /** ブックの読み込みタスク */
+        private final FutureTask<HSSFWorkbook> task;
+
+        /** 推定ヒープ使用量 */
+        private final long weight;
+
+        /** 読み込み時点のファイルの最終更新日時 */
+        private final long lastModified;
+
+        /** 読み込み時点のファイルサイズ */
+        private final long length;
+
+        /** 最終参照時刻（論理時計） */
+        private volatile long lastAccess;
+
+        /** 読み込みが正常に完了したか */
+        private volatile boolean loaded;
+
+        /** 読み込んだブック */
+        private volatile HSSFWorkbook book;
+
+        /** ブックとの対応付け・推定ヒープ使用量の計上が行われているか（エントリ自身で同期をとる） */
+        private boolean registered;
+
+        /** キャッシュから破棄されたか（エントリ自身で同期をとる） */
+        private boolean removed;
+
+        /** 数式評価器（未生成の場合はnull） */
+        private FormulaEvaluator evaluator;
+
+        /** シート名と、そのシートについて作成した索引のペア */
+        private final ConcurrentMap<String, ConcurrentMap<String, RowIndex>> rowIndexes
+                = new ConcurrentHashMap<String, ConcurrentMap<String, RowIndex>>();
+
+        /**
+         * コンストラクタ。
+         *
+         * @param uri  ファイルのURI
+         * @param file ファイル
+         */
+        private Entry(String uri, final File file) {
+            this.uri = uri;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.weight = estimateWeight(file);
+            this.task = new FutureTask<HSSFWorkbook>(new Callable<HSSFWorkbook>() {
+                public HSSFWorkbook call() {
+                    book = load(file);
+                    register();
+                    loaded = true;
+                    return book;
+                }
+            });
+        }
+
+        /**
+         * 読み込んだブックをエントリに対応付け、推定ヒープ使用量を計上する。
+         * 読み込み中にキャッシュから破棄された場合は、何もしない。
+         */
+        private synchronized void register() {
+            if (removed) {
+                return;
+            }
+            bookEntries.put(book, this);
+            WorkbookCache.this.weight.addAndGet(weight);
+            registered = true;
+        }
+
+        /**
+         * ブックとの対応付けを解除し、推定ヒープ使用量の計上を取り消す。
+         * 読み込み中の場合は、読み込み完了後に対応付けが行われないようにする。
+         */
+        private synchronized void unregister() {
+            removed = true;
+            if (registered) {
+                bookEntries.remove(book, this);
+                WorkbookCache.this.weight.addAndGet(-weight);
+                registered = false;
+            }
+        }
+
+        /**
+         * 読み込みが正常に完了したか判定する。
+         *
+         * @return 読み込みが完了している場合、真
+         */
+        private boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * 数式評価器を取得する。
+         *
+         * @return 数式評価器
+         */
+        private synchronized FormulaEvaluator getFormulaEvaluator() {
+            if (evaluator == null) {
+                evaluator = book.getCreationHelper().createFormulaEvaluator();
+            }
+            return evaluator;
+        }
+
+        /**
+         * シートの索引の格納先を取得する。
+         *
+         * @param sheetName シート名
+         * @return 索引の格納先
+         */
+        private ConcurrentMap<String, RowIndex> getRowIndexes(String sheetName) {
+            ConcurrentMap<String, RowIndex> indexes = rowIndexes.get(sheetName);
+            if (indexes == null) {
+                ConcurrentMap<String, RowIndex> created = new ConcurrentHashMap<String, RowIndex>();
+                indexes = rowIndexes.putIfAbsent(sheetName, created);
+                if (indexes == null) {
+                    indexes = created;
+                }
+            }
+            return indexes;
+        }
+
+        /**
+         * 読み込み後にファイルが更新されたか判定する。
+         * 読み込み中のエントリは、更新されていないとみなす。
+         *
+         * @param file ファイル
+         * @return 最終更新日時またはサイズが読み込み時点と異なる場合、真
+         */
+        private boolean isModified(File file) {
+            return loaded && (file.lastModified() != lastModified || file.length() != length);
+        }
+
+        /**
+         * 読み込みの完了を待ち合わせ、ブックを取得する。
+         *
+         * @return ブック
+         */
+        private HSSFWorkbook await() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return task.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;   // 読み込み完了まで待ち合わせを継続する。
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("test data file open failed.", cause);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "capacity=[" + capacity + "] weight=[" + weight.get() + "] books=" + entries.keySet();
+    }
+}
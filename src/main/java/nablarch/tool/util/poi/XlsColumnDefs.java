@@ -1,10 +1,12 @@
 package nablarch.tool.util.poi;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
+import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 
 /**
@@ -19,6 +21,18 @@ public class XlsColumnDefs {
     /** カラムインデックス(0オリジン)とカラム名のペア */
     private Map<Integer, String> indexNamePairs;
 
+    /** カラム名とカラムインデックス(0オリジン)のペア */
+    private Map<String, Integer> nameIndexPairs;
+
+    /** カラム名（{@link #collect(HSSFRow)}の結果と同じ順序） */
+    private String[] orderedNames;
+
+    /** {@link #orderedNames}の各カラムに対応するカラムインデックス(0オリジン) */
+    private int[] orderedIndexes;
+
+    /** カラム名と、{@link #orderedNames}における位置のペア */
+    private Map<String, Integer> namePositions;
+
     /**
      * 本インスタンスの定義情報に沿ってデータ行からデータを収集する。
      *
@@ -36,12 +50,210 @@ public class XlsColumnDefs {
         return ret;
     }
 
+    /**
+     * 本インスタンスの定義情報に沿ってシートの指定行からデータを収集する。
+     *
+     * @param sheet    シート
+     * @param rowIndex 行番号（0オリジン）
+     * @return 結果（カラムのインデックス順に順序付けされている）
+     */
+    LinkedHashMap<String, String> collect(CellSource sheet, int rowIndex) {
+        LinkedHashMap<String, String> ret = new LinkedHashMap<String, String>(indexNamePairs.size());
+        for (Map.Entry<Integer, String> entry : indexNamePairs.entrySet()) {
+            String columnValue = sheet.toString(rowIndex, entry.getKey());
+            ret.put(entry.getValue(), columnValue);
+        }
+        return ret;
+    }
+
+    /**
+     * 本インスタンスの定義情報に沿って、行データを参照するビューを作成する。
+     * <p/>
+     * {@link #collect(HSSFRow)}と異なり、セルは値が要求された時点で初めて読み込まれる。
+     * 一部のカラムしか参照しない場合、読み込むセル数と生成するオブジェクト数を削減できる。
+     * 一度読み込んだセルの値はビュー内に保持される。
+     * <p/>
+     * ビューの内容（キー・値・順序）は{@link #collect(HSSFRow)}の結果と同じである。
+     * ビューは変更できない。
+     *
+     * @param row 行
+     * @return 行データのビュー
+     */
+    public Map<String, String> view(HSSFRow row) {
+        return new LazyRow(new HssfCellSource(row.getSheet()), this).moveTo(row.getRowNum());
+    }
+
     /**
      *
      * @param indexNamePairs カラムインデックス(0オリジン)とカラム名のペア
      */
     public void setIndexNamePairs(Map<String, String> indexNamePairs) {
         this.indexNamePairs = convertKeyType(indexNamePairs);
+        this.nameIndexPairs = reverse(this.indexNamePairs);
+        order(this.indexNamePairs);
+    }
+
+    /**
+     * 定義されているカラムの数を取得する。
+     * 同名のカラムは1つとして数える。
+     *
+     * @return カラムの数
+     */
+    int getColumnCount() {
+        return orderedNames.length;
+    }
+
+    /**
+     * 指定した位置のカラム名を取得する。
+     *
+     * @param position 位置（{@link #collect(HSSFRow)}の結果における順序）
+     * @return カラム名
+     */
+    String getColumnNameAt(int position) {
+        return orderedNames[position];
+    }
+
+    /**
+     * 指定した位置のカラムインデックスを取得する。
+     *
+     * @param position 位置（{@link #collect(HSSFRow)}の結果における順序）
+     * @return カラムインデックス(0オリジン)
+     */
+    int getColumnIndexAt(int position) {
+        return orderedIndexes[position];
+    }
+
+    /**
+     * カラム名の位置を取得する。
+     *
+     * @param columnName カラム名
+     * @return 位置（{@link #collect(HSSFRow)}の結果における順序。定義されていない場合は-1）
+     */
+    int positionOf(Object columnName) {
+        Integer position = namePositions.get(columnName);
+        return (position == null) ? -1 : position;
+    }
+
+    /**
+     * 指定したカラムの値を文字列として取得する。
+     *
+     * @param row        行
+     * @param columnName カラム名
+     * @return カラムの値（{@link PoiUtil#toString(HSSFCell)}と同じ表現）
+     * @throws IllegalArgumentException カラム名が定義されていない場合
+     */
+    public String getString(HSSFRow row, String columnName) throws IllegalArgumentException {
+        return PoiUtil.toString(getCell(row, columnName));
+    }
+
+    /**
+     * 指定したカラムの値を数値として取得する。
+     *
+     * @param row        行
+     * @param columnName カラム名
+     * @return カラムの値
+     * @throws IllegalArgumentException カラム名が定義されていない場合
+     * @see PoiUtil#getDouble(HSSFCell)
+     */
+    public double getDouble(HSSFRow row, String columnName) throws IllegalArgumentException {
+        return PoiUtil.getDouble(getCell(row, columnName));
+    }
+
+    /**
+     * 指定したカラムの値を整数として取得する。
+     *
+     * @param row        行
+     * @param columnName カラム名
+     * @return カラムの値
+     * @throws IllegalArgumentException カラム名が定義されていない場合
+     * @see PoiUtil#getLong(HSSFCell)
+     */
+    public long getLong(HSSFRow row, String columnName) throws IllegalArgumentException {
+        return PoiUtil.getLong(getCell(row, columnName));
+    }
+
+    /**
+     * 指定したカラムの値を真偽値として取得する。
+     *
+     * @param row        行
+     * @param columnName カラム名
+     * @return カラムの値
+     * @throws IllegalArgumentException カラム名が定義されていない場合
+     * @see PoiUtil#getBoolean(HSSFCell)
+     */
+    public boolean getBoolean(HSSFRow row, String columnName) throws IllegalArgumentException {
+        return PoiUtil.getBoolean(getCell(row, columnName));
+    }
+
+    /**
+     * 指定したカラムが定義されているか判定する。
+     *
+     * @param columnName カラム名
+     * @return 定義されている場合、真
+     */
+    boolean isDefined(String columnName) {
+        return nameIndexPairs.containsKey(columnName);
+    }
+
+    /**
+     * カラム名に対応するセルを取得する。
+     *
+     * @param row        行（nullの場合は、セルが存在しないものとして扱う）
+     * @param columnName カラム名
+     * @return セル（行またはセルが存在しない場合はnull）
+     * @throws IllegalArgumentException カラム名が定義されていない場合
+     */
+    private HSSFCell getCell(HSSFRow row, String columnName) throws IllegalArgumentException {
+        Integer columnIndex = nameIndexPairs.get(columnName);
+        if (columnIndex == null) {
+            throw new IllegalArgumentException(
+                    "column not defined. columnName=[" + columnName + "] defs=" + indexNamePairs);
+        }
+        return (row == null) ? null : row.getCell(columnIndex);
+    }
+
+    /**
+     * カラム名からカラムインデックスを引くためのMapを作成する。
+     * 同名のカラムが複数定義されている場合は、{@link #collect(HSSFRow)}の結果と合わせるため、
+     * インデックスが最も大きいカラムを採用する。
+     *
+     * @param indexNamePairs カラムインデックスとカラム名のペア
+     * @return カラム名とカラムインデックスのペア
+     */
+    private static Map<String, Integer> reverse(Map<Integer, String> indexNamePairs) {
+        Map<String, Integer> reversed = new HashMap<String, Integer>(indexNamePairs.size() * 2);
+        for (Entry<Integer, String> entry : indexNamePairs.entrySet()) {
+            reversed.put(entry.getValue(), entry.getKey());
+        }
+        return reversed;
+    }
+
+    /**
+     * カラムを{@link #collect(HSSFRow)}の結果と同じ順序に並べる。
+     * 同名のカラムが複数定義されている場合、位置は最初のカラムの位置、
+     * カラムインデックスは最後のカラムのインデックスとなる。
+     *
+     * @param indexNamePairs カラムインデックスとカラム名のペア（インデックス昇順）
+     */
+    private void order(Map<Integer, String> indexNamePairs) {
+        Map<String, Integer> positions = new HashMap<String, Integer>(indexNamePairs.size() * 2);
+        String[] names = new String[indexNamePairs.size()];
+        int count = 0;
+        for (String name : indexNamePairs.values()) {
+            if (!positions.containsKey(name)) {
+                positions.put(name, count);
+                names[count++] = name;
+            }
+        }
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = nameIndexPairs.get(names[i]);
+        }
+        String[] trimmed = new String[count];
+        System.arraycopy(names, 0, trimmed, 0, count);
+        this.orderedNames = trimmed;
+        this.orderedIndexes = indexes;
+        this.namePositions = positions;
     }
 
     /**
@@ -0,0 +1,146 @@
+package nablarch.tool.util.poi;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+/**
+ * .xlsx形式のブック。
+ * <p/>
+ * シートは初めて要求された時点で{@link XlsxSheetEventReader}により読み込まれ、
+ * 本インスタンス内にキャッシュされる。
+ * ブック全体で共有される共有文字列テーブルは、最初のシートの読み込み時に1度だけ読み込み、
+ * 全シートの読み込みで再利用する。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ * 異なるシートは複数スレッドから同時に読み込むことができ、
+ * 同一シートが同時に要求された場合、読み込みは1度だけ行われる。
+ */
+class XlsxBook {
+
+    /** ブックのファイル */
+    private final File file;
+
+    /** シート名の一覧 */
+    private final List<String> sheetNames;
+
+    /** 共有文字列テーブル（未読込の場合はnull） */
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    /** 読み込み済みのシート（キーは小文字に変換したシート名） */
+    private final ConcurrentMap<String, FutureTask<XlsxSheet>> sheets
+            = new ConcurrentHashMap<String, FutureTask<XlsxSheet>>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file ブックのファイル
+     */
+    XlsxBook(File file) {
+        this.file = file;
+        this.sheetNames = XlsxSheetEventReader.getSheetNamesOf(file);
+    }
+
+    /**
+     * 指定されたファイルが.xlsx形式のブックか判定する。
+     *
+     * @param file ファイル
+     * @return 拡張子が.xlsxまたは.xlsmの場合、真
+     */
+    static boolean isXlsx(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return name.endsWith(".xlsx") || name.endsWith(".xlsm");
+    }
+
+    /**
+     * シート名の一覧を取得する。
+     *
+     * @return シート名一覧
+     */
+    List<String> getSheetNames() {
+        return sheetNames;
+    }
+
+    /**
+     * シートを取得する。
+     *
+     * @param name シート名
+     * @return シート
+     * @throws IllegalArgumentException シートが存在しない場合
+     */
+    XlsxSheet getSheet(final String name) throws IllegalArgumentException {
+        String key = name.toLowerCase(Locale.ROOT);
+        FutureTask<XlsxSheet> task = sheets.get(key);
+        if (task == null) {
+            FutureTask<XlsxSheet> created = new FutureTask<XlsxSheet>(new Callable<XlsxSheet>() {
+                public XlsxSheet call() {
+                    XlsxSheet sheet = new XlsxSheet();
+                    new XlsxSheetEventReader(file, name, sheet, getSharedStrings()).read();
+                    return sheet;
+                }
+            });
+            task = sheets.putIfAbsent(key, created);
+            if (task == null) {
+                // 自スレッドが読み込みを担当する。
+                task = created;
+                task.run();
+            }
+        }
+        return await(key, task);
+    }
+
+    /**
+     * 共有文字列テーブルを取得する。
+     * 初回の呼び出し時にブックから読み込む。
+     *
+     * @return 共有文字列テーブル
+     */
+    private synchronized ReadOnlySharedStringsTable getSharedStrings() {
+        if (sharedStrings == null) {
+            sharedStrings = XlsxSheetEventReader.readSharedStringsOf(file);
+        }
+        return sharedStrings;
+    }
+
+    /**
+     * シートの読み込み完了を待ち合わせる。
+     * 読み込みに失敗した場合、次回の要求で読み込み直せるようにキャッシュから除去する。
+     *
+     * @param key  シートのキー
+     * @param task 読み込みタスク
+     * @return シート
+     */
+    private XlsxSheet await(String key, FutureTask<XlsxSheet> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;   // 読み込み完了まで待ち合わせを継続する。
+                }
+            }
+        } catch (ExecutionException e) {
+            sheets.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
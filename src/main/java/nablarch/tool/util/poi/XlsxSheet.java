@@ -0,0 +1,64 @@
+package nablarch.tool.util.poi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * .xlsx形式のブックから読み込んだシート。
+ * <p/>
+ * {@link XlsxSheetEventReader}で逐次読み込んだセルの文字列表現のみを保持する。
+ * {@link org.apache.poi.xssf.usermodel.XSSFWorkbook}のオブジェクトモデルと比べて、
+ * 使用するヒープは大幅に少ない。
+ */
+class XlsxSheet implements CellSource, SheetRowListener {
+
+    /** 空の行 */
+    private static final String[] EMPTY_ROW = new String[0];
+
+    /** 行番号をインデックスとする行データ（行が存在しない位置はnull） */
+    private final List<String[]> rows = new ArrayList<String[]>();
+
+    /** 作成済みの索引 */
+    private final ConcurrentMap<String, RowIndex> rowIndexes = new ConcurrentHashMap<String, RowIndex>();
+
+    /** {@inheritDoc} */
+    public boolean onRow(int rowIndex, List<String> cells) {
+        while (rows.size() <= rowIndex) {
+            rows.add(null);
+        }
+        rows.set(rowIndex, cells.toArray(EMPTY_ROW));
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    public int getLastRowNum() {
+        return Math.max(rows.size() - 1, 0);
+    }
+
+    /** {@inheritDoc} */
+    public String toString(int rowIndex, int cellIndex) {
+        if (rowIndex >= rows.size()) {
+            return "";
+        }
+        String[] row = rows.get(rowIndex);
+        if (row == null || cellIndex >= row.length || row[cellIndex] == null) {
+            return "";
+        }
+        return row[cellIndex];
+    }
+
+    /**
+     * {@inheritDoc}
+     * 読み込み完了後の本クラスは状態を変更しないため、本インスタンス自身を返却する。
+     */
+    public CellSource copy() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    public ConcurrentMap<String, RowIndex> getRowIndexCache() {
+        return rowIndexes;
+    }
+}
@@ -0,0 +1,332 @@
+package nablarch.tool.util.poi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import nablarch.core.util.FileUtil;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * {@link XSSFReader}とSAXを使用して、
+ * .xlsx形式のブックから指定したシートの行を逐次読み込むクラス。
+ * <p/>
+ * {@link org.apache.poi.xssf.usermodel.XSSFWorkbook}を構築せず、
+ * シートのXMLを先頭から順に解析する。
+ * 共有文字列は{@link ReadOnlySharedStringsTable}から取得する。
+ * 同じブックの複数のシートを読み込む場合は、{@link #readSharedStringsOf(File)}で読み込んだ共有文字列を
+ * 各シートの読み込みで再利用できる。
+ * <p/>
+ * セルの値は{@link HssfSheetEventReader}と同じ文字列表現に変換される。
+ * 数値は{@link Double}の文字列表現（例えば<code>100.0</code>）となり、
+ * 数式セルは再評価せず、ブックに保存されている計算結果を使用する。
+ */
+class XlsxSheetEventReader extends DefaultHandler {
+
+    /** 読み込み対象のブック */
+    private final File file;
+
+    /** 読み込み対象のシート名 */
+    private final String sheetName;
+
+    /** 行の通知先 */
+    private final SheetRowListener listener;
+
+    /** 共有文字列テーブル（シートの読み込み時に読み込む場合はnull） */
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    /** 処理中の行番号 */
+    private int currentRow = -1;
+
+    /** 処理中の行のセル値 */
+    private final List<String> cells = new ArrayList<String>();
+
+    /** 処理中のセルの列番号 */
+    private int currentColumn = -1;
+
+    /** 処理中のセルの型（t属性） */
+    private String cellType;
+
+    /** 処理中のセルの値 */
+    private final StringBuilder value = new StringBuilder();
+
+    /** 値の要素（v要素またはt要素）を処理中か */
+    private boolean inValue = false;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file      読み込み対象のブック
+     * @param sheetName 読み込み対象のシート名
+     * @param listener  行の通知先
+     */
+    XlsxSheetEventReader(File file, String sheetName, SheetRowListener listener) {
+        this(file, sheetName, listener, null);
+    }
+
+    /**
+     * 読み込み済みの共有文字列テーブルを使用するコンストラクタ。
+     *
+     * @param file          読み込み対象のブック
+     * @param sheetName     読み込み対象のシート名
+     * @param listener      行の通知先
+     * @param sharedStrings ブックの共有文字列テーブル（nullの場合はシートの読み込み時に読み込む）
+     */
+    XlsxSheetEventReader(File file, String sheetName, SheetRowListener listener,
+                         ReadOnlySharedStringsTable sharedStrings) {
+        this.file = file;
+        this.sheetName = sheetName;
+        this.listener = listener;
+        this.sharedStrings = sharedStrings;
+    }
+
+    /**
+     * 読み込みを行う。
+     *
+     * @throws IllegalArgumentException 対象シートがブックに存在しない場合
+     */
+    void read() throws IllegalArgumentException {
+        OPCPackage pkg = open(file);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream in = sheets.next();
+                try {
+                    if (sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                        if (sharedStrings == null) {
+                            sharedStrings = new ReadOnlySharedStringsTable(pkg);
+                        }
+                        parse(in);
+                        return;
+                    }
+                } finally {
+                    FileUtil.closeQuietly(in);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (OpenXML4JException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (SAXException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            pkg.revert();
+        }
+        throw new IllegalArgumentException("could not find sheet [" + sheetName + "] in the book.");
+    }
+
+    /**
+     * 指定されたファイルの共有文字列テーブルを読み込む。
+     * 読み込んだテーブルは変更されないため、複数スレッドから同時に参照できる。
+     *
+     * @param file ファイル
+     * @return 共有文字列テーブル
+     */
+    static ReadOnlySharedStringsTable readSharedStringsOf(File file) {
+        OPCPackage pkg = open(file);
+        try {
+            return new ReadOnlySharedStringsTable(pkg);
+        } catch (IOException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (SAXException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 指定されたファイルが保持するシート名の一覧を取得する。
+     *
+     * @param file ファイル
+     * @return シート名一覧
+     */
+    static List<String> getSheetNamesOf(File file) {
+        OPCPackage pkg = open(file);
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> names = new ArrayList<String>();
+            while (sheets.hasNext()) {
+                FileUtil.closeQuietly(sheets.next());
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (IOException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } catch (OpenXML4JException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * ブックを読み取り専用で開く。
+     *
+     * @param file ファイル
+     * @return パッケージ
+     */
+    private static OPCPackage open(File file) {
+        try {
+            return OPCPackage.open(file.getPath(), PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new RuntimeException("test data file open failed. file=[" + file.getAbsolutePath() + "]", e);
+        }
+    }
+
+    /**
+     * シートのXMLを解析する。
+     *
+     * @param in シートのXML
+     * @throws IOException  入出力例外
+     * @throws SAXException 解析に失敗した場合
+     */
+    private void parse(InputStream in) throws IOException, SAXException {
+        XMLReader xmlReader;
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            xmlReader = factory.newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        xmlReader.setContentHandler(this);
+        try {
+            xmlReader.parse(new InputSource(in));
+        } catch (StopReading e) {
+            return;   // 通知先の指示により読み込みを打ち切った。
+        }
+        if (currentRow >= 0 && !cells.isEmpty()) {
+            listener.onRow(currentRow, cells);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if ("row".equals(localName)) {
+            String r = attributes.getValue("r");
+            int row = (r == null) ? currentRow + 1 : Integer.parseInt(r) - 1;
+            startRow(row);
+        } else if ("c".equals(localName)) {
+            String r = attributes.getValue("r");
+            currentColumn = (r == null) ? currentColumn + 1 : toColumnIndex(r);
+            cellType = attributes.getValue("t");
+            value.setLength(0);
+        } else if ("v".equals(localName) || "t".equals(localName)) {
+            inValue = true;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if ("v".equals(localName) || "t".equals(localName)) {
+            inValue = false;
+        } else if ("c".equals(localName)) {
+            String cellValue = toCellValue();
+            while (cells.size() <= currentColumn) {
+                cells.add(null);
+            }
+            cells.set(currentColumn, cellValue);
+        }
+    }
+
+    /**
+     * 行の開始を処理する。
+     * 処理中の行にセルが存在する場合、その行を通知する。
+     *
+     * @param row 開始する行の行番号
+     * @throws StopReading 通知先が読み込みの打ち切りを指示した場合
+     */
+    private void startRow(int row) throws StopReading {
+        if (currentRow >= 0 && !cells.isEmpty() && !listener.onRow(currentRow, cells)) {
+            throw new StopReading();
+        }
+        currentRow = row;
+        currentColumn = -1;
+        cells.clear();
+    }
+
+    /**
+     * 処理中のセルの値を、型に応じた文字列表現に変換する。
+     *
+     * @return セルの文字列表現
+     */
+    private String toCellValue() {
+        if (value.length() == 0 && !"inlineStr".equals(cellType)) {
+            return "";    // 値を持たないセル
+        }
+        String raw = value.toString();
+        if (cellType == null || "n".equals(cellType)) {
+            return String.valueOf(Double.parseDouble(raw));
+        }
+        if ("s".equals(cellType)) {
+            return sharedStrings.getEntryAt(Integer.parseInt(raw));
+        }
+        if ("b".equals(cellType)) {
+            return String.valueOf("1".equals(raw));
+        }
+        if ("str".equals(cellType) || "inlineStr".equals(cellType)) {
+            return raw;
+        }
+        throw new RuntimeException(
+                "unexpected exception occurred in processing cell."
+                        + " fileName = [" + file.getAbsolutePath() + ']'
+                        + " sheetName = [" + sheetName + ']'
+                        + " rowNumber = [" + (currentRow + 1) + ']'
+                        + " columnNumber = [" + (currentColumn + 1) + ']',
+                new IllegalArgumentException("could not handle cell. cell type=[" + cellType + "]"));
+    }
+
+    /**
+     * セル参照（例えば<code>AB12</code>）から列番号（0オリジン）を取得する。
+     *
+     * @param reference セル参照
+     * @return 列番号
+     */
+    static int toColumnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || 'Z' < c) {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * 読み込みの打ち切りを表す例外。
+     */
+    private static final class StopReading extends SAXException {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+    }
+}
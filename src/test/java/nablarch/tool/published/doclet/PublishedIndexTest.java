@@ -0,0 +1,88 @@
+package nablarch.tool.published.doclet;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static nablarch.tool.published.doclet.Util.prepare;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link PublishedIndex}のテストクラス。
+ */
+public class PublishedIndexTest {
+
+    /** 出力先ディレクトリ */
+    private static final File DEST_DIR = prepare("target/published-index");
+
+    /**
+     * パッケージごとにソート・重複除去して出力され、二分探索で検索できること。
+     */
+    @Test
+    public void testWriteAndOpen() throws Exception {
+        File file = new File(DEST_DIR, "index.config");
+        try (OutputStream out = new FileOutputStream(file)) {
+            PublishedIndex.write(Map.of(
+                    "b.pkg", List.of("b.pkg.Z", "b.pkg.A.m(java.lang.String)", "b.pkg.A", "b.pkg.Z", "b.pkg.Ä"),
+                    "a", List.of("a.X.field"),
+                    "", List.of("Default"),
+                    "empty", List.of()), out);
+        }
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertThat(content, is(PublishedIndex.HEADER + "\n"
+                                       + "\t0\t8\n"
+                                       + "a\t8\t10\n"
+                                       + "b.pkg\t18\t53\n"
+                                       + "\n"
+                                       + "Default\n"
+                                       + "a.X.field\n"
+                                       + "b.pkg.A\n"
+                                       + "b.pkg.A.m(java.lang.String)\n"
+                                       + "b.pkg.Z\n"
+                                       + "b.pkg.Ä\n"));
+
+        PublishedIndex index = PublishedIndex.open(file);
+        assertThat(index.getPackages(), equalTo(Set.of("", "a", "b.pkg")));
+        assertThat(index.getApis("b.pkg"),
+                   equalTo(List.of("b.pkg.A", "b.pkg.A.m(java.lang.String)", "b.pkg.Z", "b.pkg.Ä")));
+        assertThat(index.getApis("unknown"), equalTo(List.of()));
+
+        for (String api : List.of("b.pkg.A", "b.pkg.A.m(java.lang.String)", "b.pkg.Z", "b.pkg.Ä")) {
+            assertThat(api, index.contains("b.pkg", api), is(true));
+        }
+        assertThat(index.contains("", "Default"), is(true));
+        assertThat(index.contains("a", "a.X.field"), is(true));
+        assertThat(index.contains("b.pkg", "b.pkg.A.m"), is(false));
+        assertThat(index.contains("b.pkg", "b.pkg.B"), is(false));
+        assertThat(index.contains("b.pkg", "b.pkg.Ö"), is(false));
+        assertThat(index.contains("b.pkg", "a.X.field"), is(false));
+        assertThat(index.contains("unknown", "b.pkg.A"), is(false));
+    }
+
+    /**
+     * インデックス形式でないファイルを読み込んだ場合、例外が発生すること。
+     */
+    @Test
+    public void testOpenInvalidFile() throws Exception {
+        File file = new File(DEST_DIR, "plain.config");
+        Files.write(file.toPath(), "a.b.C\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            PublishedIndex.open(file);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("invalid index file header. header=[a.b.C]"));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package nablarch.tool.published.doclet;
+
+import nablarch.tool.published.doclet.testfiles.PublishedClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static nablarch.tool.published.doclet.Util.prepare;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * {@link PublishedProcessor}のテストクラス。
+ * <p>
+ * テスト用のクラスをアノテーションプロセッサを指定してコンパイルし、
+ * {@link PublishedDoclet}と同じ公開APIが出力されることを確認する。
+ * </p>
+ */
+public class PublishedProcessorTest {
+
+    /** 出力先ディレクトリ */
+    private static final File DEST_DIR = prepare("target/published-processor");
+
+    /** テスト用のクラスが存在するディレクトリ */
+    private static final Path SOURCE_DIR = Paths.get("src/test/java",
+            PublishedClass.class.getPackage().getName().replace('.', '/'));
+
+    /**
+     * デフォルトの公開範囲で公開APIを作成する。
+     */
+    @Test
+    public void testProcess() throws Exception {
+        File classes = new File(DEST_DIR, "all");
+        assertThat(compile(classes), is(true));
+
+        List<String> actual = Files.readAllLines(new File(classes, PublishedProcessor.DEFAULT_OUTPUT).toPath(),
+                                                 Charset.defaultCharset());
+        actual.sort(String::compareTo);
+        assertThat(actual, equalTo(expected("publishedForAll.config", false)));
+        // ドックレット（-protected）と同様に、パッケージプライベートのクラスと、その内部クラスは出力されない。
+        String packagePrivate = PublishedClass.class.getPackage().getName() + ".PackagePrivateClass";
+        assertThat(actual.stream().anyMatch(line -> line.startsWith(packagePrivate)), is(false));
+    }
+
+    /**
+     * タグと出力形式を指定して公開APIを作成する。
+     */
+    @Test
+    public void testProcessTaggedIndexed() throws Exception {
+        File classes = new File(DEST_DIR, "architect");
+        assertThat(compile(classes,
+                           "-A" + PublishedProcessor.OPTION_TAG + "=architect",
+                           "-A" + PublishedProcessor.OPTION_OUTPUT + "=META-INF/published-architect.config",
+                           "-A" + PublishedProcessor.OPTION_FORMAT + "=indexed"), is(true));
+
+        PublishedIndex index = PublishedIndex.open(new File(classes, "META-INF/published-architect.config"));
+        List<String> actual = new ArrayList<>();
+        for (String packageName : index.getPackages()) {
+            actual.addAll(index.getApis(packageName));
+        }
+        actual.sort(String::compareTo);
+        assertThat(actual, equalTo(expected("publishedForArchitect.config", true)));
+    }
+
+    /**
+     * 一部のクラスのみを再コンパイルした場合、再コンパイルされなかったクラスの公開APIが引き継がれること。
+     * 解決できないクラスの公開APIは引き継がれないこと。
+     */
+    @Test
+    public void testProcessIncremental() throws Exception {
+        File classes = new File(DEST_DIR, "incremental");
+        assertThat(compile(classes), is(true));
+        File output = new File(classes, PublishedProcessor.DEFAULT_OUTPUT);
+        Files.write(output.toPath(), List.of("removed.RemovedClass", "removed.RemovedClass.method()"),
+                    Charset.defaultCharset(), StandardOpenOption.APPEND);
+
+        assertThat(compile(classes, List.of(SOURCE_DIR.resolve("MySuperClass.java").toFile()),
+                           "-sourcepath", "src/test/java"), is(true));
+
+        List<String> actual = Files.readAllLines(output.toPath(), Charset.defaultCharset());
+        actual.sort(String::compareTo);
+        assertThat(actual, equalTo(expected("publishedForAll.config", false)));
+    }
+
+    /**
+     * 出力形式が不正な場合、コンパイルエラーとなること。
+     */
+    @Test
+    public void testInvalidFormat() throws Exception {
+        assertThat(compile(new File(DEST_DIR, "invalid"), "-A" + PublishedProcessor.OPTION_FORMAT + "=json"), is(false));
+    }
+
+    /**
+     * アノテーションプロセッサを指定してテスト用のクラスをコンパイルする。
+     *
+     * @param classes クラスの出力先ディレクトリ
+     * @param options 追加のオプション
+     * @return コンパイルに成功した場合、真
+     */
+    private boolean compile(File classes, String... options) throws IOException {
+        assertThat(classes.mkdirs(), is(true));
+        try (Stream<Path> paths = Files.walk(SOURCE_DIR)) {
+            List<File> sources = paths.filter(path -> path.toString().endsWith(".java"))
+                                      .map(Path::toFile)
+                                      .collect(Collectors.toList());
+            return compile(classes, sources, options);
+        }
+    }
+
+    /**
+     * アノテーションプロセッサを指定して、指定されたソースファイルをコンパイルする。
+     *
+     * @param classes クラスの出力先ディレクトリ
+     * @param sources ソースファイル
+     * @param options 追加のオプション
+     * @return コンパイルに成功した場合、真
+     */
+    private boolean compile(File classes, List<File> sources, String... options) throws IOException {
+        List<String> args = new ArrayList<>(List.of(
+                "-proc:only",
+                "-processor", PublishedProcessor.class.getName(),
+                "-encoding", "UTF-8",
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classes.getPath()));
+        args.addAll(List.of(options));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            return compiler.getTask(null, fileManager, null, args, null, fileManager.getJavaFileObjectsFromFiles(sources))
+                           .call();
+        }
+    }
+
+    /**
+     * ドックレットの期待値から、公開APIの一覧を取得する。
+     *
+     * @param name 期待値のファイル名
+     * @param distinct 重複を除く場合、真
+     * @return 公開APIの一覧（ソート済み）
+     */
+    private List<String> expected(String name, boolean distinct) throws IOException {
+        Path path = Paths.get("src/test/resources/nablarch/tool/published/doclet", name);
+        Stream<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8).stream();
+        return (distinct ? lines.distinct() : lines).sorted().collect(Collectors.toList());
+    }
+}
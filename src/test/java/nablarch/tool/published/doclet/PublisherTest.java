@@ -14,6 +14,7 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static nablarch.tool.published.doclet.Util.prepare;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -71,6 +72,25 @@ public class PublisherTest {
                 PublisherTest.class.getResource("/nablarch/tool/published/doclet/publishedForAll.config"));
         
         assertThat(actual, equalTo(expected));
+        // パッケージプライベートのクラスと、その内部クラスは出力されない。
+        assertThat(actual.stream().anyMatch(line -> line.startsWith(PKG + ".PackagePrivateClass")), is(false));
+    }
+
+    /**
+     * 公開APIが、ソートされた状態で出力されることを確認する。
+     * 出力内容はクラスの走査順に依存しないこと。
+     */
+    @Test
+    public void testPublishSorted() throws Exception {
+        File output = new File(CONFIG_DEST_DIR, "publishedSorted.config");
+        assertThat(publish(output), is(0));
+
+        final List<String> actual = readAllLines(output.toURI().toURL());
+        final List<String> sorted = new ArrayList<>(actual);
+        sorted.sort(String::compareTo);
+
+        assertThat(actual.isEmpty(), is(false));
+        assertThat(actual, equalTo(sorted));
     }
 
     /**
@@ -87,6 +107,79 @@ public class PublisherTest {
                 PublisherTest.class.getResource("/nablarch/tool/published/doclet/publishedForArchitect.config"));
 
         assertThat(actual, equalTo(expected));
+        // 1文字の名前のクラスは、型変数とみなされずに完全修飾名で出力される。
+        assertThat(actual.contains(PKG + ".MySuperClass.singleLetterClass(" + PKG + ".A)"), is(true));
+    }
+
+    /**
+     * Publishedアノテーションの完全修飾名を指定して公開APIを作成する。
+     * 同じ単純名を持つ無関係なアノテーションは、デフォルトでは対象外となること。
+     */
+    @Test
+    public void testPublishWithAnnotation() throws Exception {
+        String other = PKG + ".otherannotation";
+        File output = new File(CONFIG_DEST_DIR, "publishedWithAnnotation.config");
+        assertThat(publishWithAnnotation(output, other + ".Published"), is(0));
+
+        final List<String> actual = readAllLinesWithSort(output.toURI().toURL());
+        // タグが指定されたメソッドは、-tagオプションを指定していないため対象外となる。
+        assertThat(actual, equalTo(List.of(other + ".OtherPublishedClass")));
+
+        final List<String> all = readAllLinesWithSort(
+                PublisherTest.class.getResource("/nablarch/tool/published/doclet/publishedForAll.config"));
+        assertThat(all.stream().anyMatch(line -> line.startsWith(other)), is(false));
+    }
+
+    /**
+     * インデックス形式で公開APIを作成する。
+     * パッケージごとにソート・重複除去され、全ての公開APIを検索できること。
+     */
+    @Test
+    public void testPublishIndexed() throws Exception {
+        File output = new File(CONFIG_DEST_DIR, "publishedIndexed.config");
+        assertThat(publishIndexed(output), is(0));
+
+        final List<String> expected = readAllLinesWithSort(
+                PublisherTest.class.getResource("/nablarch/tool/published/doclet/publishedForAll.config"));
+        PublishedIndex index = PublishedIndex.open(output);
+        List<String> actual = new ArrayList<>();
+        for (String packageName : index.getPackages()) {
+            for (String api : index.getApis(packageName)) {
+                assertThat(api, index.contains(packageName, api), is(true));
+                actual.add(api);
+            }
+        }
+        actual.sort(String::compareTo);
+        assertThat(actual, equalTo(expected.stream().distinct().collect(Collectors.toList())));
+
+        assertThat(index.getPackages().contains(PKG + ".publishedOnlyClass"), is(true));
+        assertThat(index.contains(PKG + ".publishedOnlyClass", PKG + ".publishedOnlyClass.PublishedTestClass"), is(true));
+        assertThat(index.contains(PKG, PKG + ".publishedOnlyClass.PublishedTestClass"), is(false));
+    }
+
+    /**
+     * 軽量なドックレットで公開APIを作成する。
+     * 標準ドックレットのオプションが指定されても無視され、{@link PublishedDoclet}と同じ内容が出力されること。
+     */
+    @Test
+    public void testPublishWithWhitelistDoclet() throws Exception {
+        File output = new File(CONFIG_DEST_DIR, "publishedWithWhitelistDoclet.config");
+        List<String> args = new ArrayList<>(docletArgs);
+        args.set(args.indexOf(PublishedDoclet.class.getName()), PublishedWhitelistDoclet.class.getName());
+        args.addAll(List.of(
+                "-d", "./target/javadoc/publishWithWhitelistDoclet",
+                "-classpath", System.getProperty("java.class.path"),
+                "-author", "-version", "-use", "-Xdoclint:none",
+                "-windowtitle", "title", "-linkoffline", "https://example.com/", ".",
+                "-tag", "architect",
+                "-output", output.getPath()));
+        assertThat(publish(args), is(0));
+
+        final List<String> actual = readAllLinesWithSort(output.toURI().toURL());
+        final List<String> expected = readAllLinesWithSort(
+                PublisherTest.class.getResource("/nablarch/tool/published/doclet/publishedForArchitect.config"));
+        assertThat(actual, equalTo(expected));
+        assertThat(new File("./target/javadoc/publishWithWhitelistDoclet").exists(), is(false));
     }
 
     /**
@@ -136,6 +229,47 @@ public class PublisherTest {
         return publish(args);
     }
 
+    /**
+     * Publishedアノテーションを指定して公開する。
+     *
+     * @param output 設定ファイルの出力先
+     * @param annotation Publishedアノテーションの完全修飾名
+     * @return ステータスコード
+     */
+    public int publishWithAnnotation(File output, String annotation) {
+        List<String> args = new ArrayList<>(docletArgs);
+        args.add("-d");
+        args.add("./target/javadoc/publishWithAnnotation");
+        args.add("-classpath");
+        args.add(System.getProperty("java.class.path"));
+        args.add("-output");
+        args.add(output.getPath());
+        args.add("-annotation");
+        args.add(annotation);
+
+        return publish(args);
+    }
+
+    /**
+     * インデックス形式で公開する。
+     *
+     * @param output 設定ファイルの出力先
+     * @return ステータスコード
+     */
+    public int publishIndexed(File output) {
+        List<String> args = new ArrayList<>(docletArgs);
+        args.add("-d");
+        args.add("./target/javadoc/publishIndexed");
+        args.add("-classpath");
+        args.add(System.getProperty("java.class.path"));
+        args.add("-output");
+        args.add(output.getPath());
+        args.add("-format");
+        args.add("indexed");
+
+        return publish(args);
+    }
+
     /**
      * outputオプションを指定せずに実行する。
      *
@@ -173,13 +307,24 @@ public class PublisherTest {
      * @return 読み込み結果
      */
     private List<String> readAllLinesWithSort(URL url) {
+        List<String> result = readAllLines(url);
+        result.sort(String::compareTo);
+        return result;
+    }
+
+    /**
+     * 指定されたパスのファイルの内容を、ソートせずに読み込む。
+     *
+     * @param url 読み込むファイルのURL
+     * @return 読み込み結果（ファイル内の順序のまま）
+     */
+    private List<String> readAllLines(URL url) {
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
             List<String> result = new ArrayList<>();
             String line;
             while ((line = reader.readLine()) != null) {
                 result.add(line);
             }
-            result.sort(String::compareTo);
             return result;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -0,0 +1,9 @@
+package nablarch.tool.published.doclet.testfiles;
+
+/**
+ * 1文字の名前を持つクラス。
+ * 型変数と同じ形式の名前でも、引数の型として完全修飾名で出力されることを確認する。
+ *
+ */
+public class A {
+}
@@ -29,6 +29,14 @@ public class MySuperClass<T> {
     public void typeParam(T arg) {
     }
 
+    @Published(tag = {"architect"})
+    public <E extends Number> void boundedTypeParam(E arg, T[] array, List<String>... varargs) {
+    }
+
+    @Published(tag = {"architect"})
+    public void singleLetterClass(A arg) {
+    }
+
     /** 表示される。 */
     @Published
     public static Object publishedStaticField;
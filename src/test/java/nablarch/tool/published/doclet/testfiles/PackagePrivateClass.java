@@ -0,0 +1,26 @@
+package nablarch.tool.published.doclet.testfiles;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * パッケージプライベートのクラスのテスト（表示されない）。
+ * Publishedアノテーションが付与されていても、javadocの-protectedオプションで対象外となる。
+ *
+ */
+@Published
+class PackagePrivateClass {
+
+    /** 表示されない。 */
+    @Published
+    public void method() {
+    }
+
+    /** 囲むクラスがパッケージプライベートのため、publicでも表示されない。 */
+    public static class NestedPublicClass {
+
+        /** 表示されない。 */
+        @Published
+        public void method() {
+        }
+    }
+}
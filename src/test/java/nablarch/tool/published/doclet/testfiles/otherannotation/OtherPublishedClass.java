@@ -0,0 +1,14 @@
+package nablarch.tool.published.doclet.testfiles.otherannotation;
+
+/**
+ * 無関係なPublishedアノテーションが付与されたクラス。
+ * デフォルトでは表示されない。
+ */
+@Published
+public class OtherPublishedClass {
+
+    /** {@code -tag=architect}が指定されていないため、表示されない */
+    @Published(tag = "architect")
+    public void otherPublishedMethod() {
+    }
+}
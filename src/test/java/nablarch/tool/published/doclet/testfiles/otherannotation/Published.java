@@ -0,0 +1,19 @@
+package nablarch.tool.published.doclet.testfiles.otherannotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * nablarchのPublishedアノテーションと同じ単純名を持つ、無関係なアノテーション。
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.CONSTRUCTOR})
+public @interface Published {
+
+    /** タグ */
+    String[] tag() default {};
+}
@@ -0,0 +1,124 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link BulkFileWriter}のテストクラス。
+ */
+public class BulkFileWriterTest {
+
+    /** 出力先のディレクトリ */
+    private final File dir = new File("target/test-work/BulkFileWriterTest");
+
+    @Before
+    public void setUp() {
+        if (dir.exists()) {
+            ToolFileUtil.deleteDir(dir);
+        }
+    }
+
+    /** 複数のディレクトリに、多数のファイルを出力できること。 */
+    @Test
+    public void testWrite() {
+        BulkFileWriter writer = new BulkFileWriter().setParallelism(4);
+        for (int i = 0; i < 200; i++) {
+            writer.add(file(i), "内容" + i);
+        }
+        writer.add(new File(dir, "built.txt"), new SourceBuilder("\n").println("class A {").println("}"));
+        BulkFileWriter.Result result = writer.write();
+
+        assertThat(result.hasErrors(), is(false));
+        assertThat(result.getWrittenFiles().size(), is(201));
+        assertThat(result.getWrittenFiles().get(10), is(file(10).getAbsoluteFile()));
+        for (int i = 0; i < 200; i++) {
+            assertThat(SimpleReader.fileToString(file(i), "UTF-8"), is("内容" + i));
+        }
+        assertThat(SimpleReader.fileToString(new File(dir, "built.txt"), "UTF-8"), is("  class A {\n  }"));
+        result.throwIfFailed();
+
+        // 登録内容はクリアされる。
+        assertThat(writer.write().getWrittenFiles().size(), is(0));
+    }
+
+    /** 内容が同一のファイルは書き込みが省略され、読み取り専用になること。 */
+    @Test
+    public void testSkipUnchangedAndSeal() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BulkFileWriter writer = new BulkFileWriter().setExecutor(executor)
+                                                        .setEncoding(Charset.forName("Windows-31J"))
+                                                        .setSeal(true)
+                                                        .setSkipUnchanged(true);
+            for (int i = 0; i < 20; i++) {
+                writer.add(file(i), "内容" + i);
+            }
+            assertThat(writer.write().getWrittenFiles().size(), is(20));
+
+            for (int i = 0; i < 20; i++) {
+                writer.add(file(i), (i % 2 == 0) ? "内容" + i : "変更" + i);
+            }
+            BulkFileWriter.Result result = writer.write();
+            assertThat(result.getWrittenFiles().size(), is(10));
+            assertThat(result.getSkippedFiles().size(), is(10));
+            assertThat(result.getSkippedFiles().get(0), is(file(0).getAbsoluteFile()));
+            assertThat(SimpleReader.fileToString(file(1), "Windows-31J"), is("変更1"));
+        } finally {
+            executor.shutdown();
+            for (int i = 0; i < 20; i++) {
+                file(i).setWritable(true);
+            }
+        }
+    }
+
+    /** 一部のファイルの出力に失敗しても残りのファイルは出力され、失敗が集約されること。 */
+    @Test
+    public void testErrors() {
+        File notDirectory = new File(dir, "notDirectory");
+        SimpleWriter.write(notDirectory, "", Charset.forName("UTF-8"));
+
+        BulkFileWriter.Result result = new BulkFileWriter().add(file(0), "ok")
+                                                           .add(new File(notDirectory, "a.txt"), "ng")
+                                                           .add(new File(notDirectory, "b.txt"), "ng")
+                                                           .add(file(1), "ok")
+                                                           .write();
+        assertThat(result.getWrittenFiles().size(), is(2));
+        assertThat(result.getErrors().size(), is(2));
+        assertThat(result.getErrors().get(new File(notDirectory, "a.txt").getAbsoluteFile()),
+                   is(instanceOf(IllegalStateException.class)));
+        try {
+            result.throwIfFailed();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("failed to write 2 file(s)."));
+            assertThat(e.getMessage(), containsString("a.txt"));
+            assertThat(e.getSuppressed().length, is(1));
+        }
+    }
+
+    /** 同じファイルを重複して登録した場合、例外が発生すること。 */
+    @Test
+    public void testDuplicate() {
+        BulkFileWriter writer = new BulkFileWriter().add(file(0), "a");
+        try {
+            writer.add(new File(file(0).getAbsolutePath()), "b");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("file has already been added."));
+        }
+    }
+
+    private File file(int i) {
+        return new File(dir, "dir" + (i % 10) + "/file" + i + ".txt");
+    }
+}
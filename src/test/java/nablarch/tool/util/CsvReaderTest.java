@@ -0,0 +1,214 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvReader}のテストクラス。
+ */
+public class CsvReaderTest {
+
+    /** 引用符で囲まれた区切り文字・改行・引用符が解釈されること。 */
+    @Test
+    public void testReadQuoted() {
+        CsvReader reader = new CsvReader(new StringReader(
+                "id,name\r\n"
+                        + "1,\"a,b\"\r\n"
+                        + "2,\"say \"\"hi\"\"\"\n"
+                        + "3,\"multi\r\nline\"\r"
+                        + "\n\n"
+                        + "4,\n"
+                        + "\"\",last"));
+        assertArrayEquals(new String[] {"id", "name"}, reader.readRow());
+        assertArrayEquals(new String[] {"1", "a,b"}, reader.readRow());
+        assertArrayEquals(new String[] {"2", "say \"hi\""}, reader.readRow());
+        assertArrayEquals(new String[] {"3", "multi\r\nline"}, reader.readRow());
+        assertArrayEquals(new String[] {"4", ""}, reader.readRow());
+        assertArrayEquals(new String[] {"", "last"}, reader.readRow());
+        assertThat(reader.readRow(), is(nullValue()));
+        assertThat(reader.getRecordCount(), is(6L));
+        reader.close();
+    }
+
+    /** 値の数が同じであれば、返却される配列が再利用されること。 */
+    @Test
+    public void testReuseRow() {
+        CsvReader reader = new CsvReader(new StringReader("a,b\nc,d\ne\n"));
+        String[] first = reader.readRow();
+        String[] second = reader.readRow();
+        assertThat(second, is(sameInstance(first)));
+        assertArrayEquals(new String[] {"c", "d"}, second);
+        assertArrayEquals(new String[] {"e"}, reader.readRow());
+        reader.close();
+    }
+
+    /** 先頭レコードをヘッダとして、Mapで読み込めること。 */
+    @Test
+    public void testReadMap() {
+        CsvReader reader = new CsvReader(new StringReader("id,name\n1,Name1\n2,\"Name,2\"\n"));
+        Map<String, String> row = reader.readMap();
+        assertThat(row.toString(), is("{id=1, name=Name1}"));
+        assertThat(reader.readMap().get("name"), is("Name,2"));
+        assertThat(reader.readMap(), is(nullValue()));
+        assertArrayEquals(new String[] {"id", "name"}, reader.getHeader());
+        reader.close();
+    }
+
+    /** 値の数がヘッダと一致しない場合、例外が発生すること。 */
+    @Test
+    public void testReadMapFieldCountMismatch() {
+        CsvReader reader = new CsvReader(new StringReader("id,name\n1\n"));
+        try {
+            reader.readMap();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("number of fields must be 2. fields=[1]"));
+            assertThat(e.getMessage(), containsString("line=[2]"));
+        }
+    }
+
+    /** 閉じる引用符の後に不正な文字がある場合、例外が発生すること。 */
+    @Test
+    public void testInvalidFormat() {
+        CsvReader reader = new CsvReader(new StringReader("a\n\"b\"c\n"));
+        reader.readRow();
+        try {
+            reader.readRow();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("unexpected character after closing quote. character=[c]"));
+            assertThat(e.getMessage(), containsString("line=[2]"));
+        }
+
+        reader = new CsvReader(new StringReader("a,\"b\nc"));
+        try {
+            reader.readRow();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("unterminated quoted field."));
+        }
+    }
+
+    /** {@link CsvWriter}で出力したファイルを、バッファをまたいで読み戻せること。 */
+    @Test
+    public void testRoundTrip() {
+        String path = "target/test-work/CsvReaderTest/testRoundTrip.csv";
+        new File(path).getParentFile().mkdirs();
+        List<Map<String, String>> expected = new ArrayList<Map<String, String>>();
+        CsvWriter writer = new CsvWriter(path, "UTF-8", "\r\n");
+        for (int i = 0; i < 1000; i++) {
+            Map<String, String> row = new LinkedHashMap<String, String>();
+            row.put("no", String.valueOf(i));
+            row.put("value", "値" + i + (i % 3 == 0 ? ",\"改行\r\nあり\"" : ""));
+            row.put("empty", "");
+            writer.writeRow(row);
+            expected.add(row);
+        }
+        writer.close();
+
+        assertThat(readAll(new CsvReader(path, "UTF-8", 7)), is(expected));
+        assertThat(readAll(CsvReader.openMapped(path, "UTF-8")), is(expected));
+    }
+
+    /** 1カラムのデータで値が空文字の行も、読み戻せること。 */
+    @Test
+    public void testRoundTripSingleColumn() {
+        String path = "target/test-work/CsvReaderTest/testRoundTripSingleColumn.csv";
+        new File(path).getParentFile().mkdirs();
+        List<Map<String, String>> expected = new ArrayList<Map<String, String>>();
+        CsvWriter writer = new CsvWriter(path, "UTF-8", "\r\n");
+        for (String value : new String[] {"a", "", "b", ""}) {
+            Map<String, String> row = new LinkedHashMap<String, String>();
+            row.put("only", value);
+            writer.writeRow(row);
+            expected.add(row);
+        }
+        writer.close();
+
+        assertThat(readAll(new CsvReader(path, "UTF-8", 7)), is(expected));
+    }
+
+    /** メモリマップの領域境界でマルチバイト文字が分断されても、正しく読み込めること。 */
+    @Test
+    public void testMappedWindow() throws IOException {
+        File file = new File("target/test-work/CsvReaderTest/testMappedWindow.csv");
+        file.getParentFile().mkdirs();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            expected.append("行").append(i).append(",\"あ,い\"\n");
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(expected.toString().getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        MappedFileReader mapped = new MappedFileReader(file, Charset.forName("UTF-8"), 5);
+        assertThat(mapped.size(), is(file.length()));
+        CsvReader reader = new CsvReader(mapped);
+        int count = 0;
+        for (String[] row = reader.readRow(); row != null; row = reader.readRow()) {
+            assertArrayEquals(new String[] {"行" + count, "あ,い"}, row);
+            count++;
+        }
+        reader.close();
+        assertThat(count, is(500));
+    }
+
+    /** ファイルが存在しない場合、例外が発生すること。 */
+    @Test
+    public void testFileNotFound() {
+        String path = "target/test-work/CsvReaderTest/notExists.csv";
+        try {
+            new CsvReader(path, "UTF-8");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("File is not found. file=[" + new File(path).getAbsolutePath() + "]"));
+        }
+        try {
+            CsvReader.openMapped(path, "UTF-8");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("File is not found. file=[" + new File(path).getAbsolutePath() + "]"));
+        }
+    }
+
+    /** サポートされていない文字コードを指定した場合、例外が発生すること。 */
+    @Test
+    public void testUnsupportedEncoding() {
+        try {
+            new CsvReader("src/test/java/nablarch/tool/util/CsvReaderTest.java", "unknown");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("this encoding is not supported. encoding=[unknown]"));
+        }
+    }
+
+    private static List<Map<String, String>> readAll(CsvReader reader) {
+        List<Map<String, String>> result = new ArrayList<Map<String, String>>();
+        try {
+            for (Map<String, String> row = reader.readMap(); row != null; row = reader.readMap()) {
+                result.add(row);
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -100,6 +101,31 @@ public class CsvUtilTest {
         assertThat(actual, is(""));
     }
     
+    /**
+     * カンマ・引用符・改行を含む値が、RFC 4180に従って出力されることを確認する。<br />
+     * Mapに含まれないカラムは空文字として出力される。
+     */
+    @Test
+    public void testWriteQuoted() {
+        List<Map<String, String>> data = new ArrayList<Map<String, String>>();
+        Map<String, String> first = new LinkedHashMap<String, String>();
+        first.put("id", "1");
+        first.put("name", "Yamada, Taro");
+        first.put("note", "say \"hello\"\nbye");
+        data.add(first);
+        Map<String, String> second = new LinkedHashMap<String, String>();
+        second.put("id", "2");
+        data.add(second);
+
+        CsvUtil.writeFile(data, outputFilePath, "UTF-8", "\r\n");
+        assertThat(SimpleReader.fileToString(outputFilePath, "UTF-8"),
+                   is("id,name,note\r\n1,\"Yamada, Taro\",\"say \"\"hello\"\"\nbye\"\r\n2,,\r\n"));
+
+        CsvUtil.writeFile(data, outputFilePath, "UTF-8", "\r\n", CsvQuoteMode.ALL);
+        assertThat(SimpleReader.fileToString(outputFilePath, "UTF-8"),
+                   is("\"id\",\"name\",\"note\"\r\n\"1\",\"Yamada, Taro\",\"say \"\"hello\"\"\nbye\"\r\n\"2\",,\r\n"));
+    }
+
     @After
     public void after(){
         if (!FileUtil.deleteFile(new File(outputFilePath))) {
@@ -0,0 +1,167 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvWriter}のテストクラス。
+ */
+public class CsvWriterTest {
+
+    /** 固定のヘッダと配列で1行ずつ出力できること。 */
+    @Test
+    public void testWriteArray() {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, "\n");
+        writer.writeHeader("id", "name")
+              .writeRow("1", "Name1")
+              .writeRow("2", null);
+        writer.close();
+        assertThat(out.toString(), is("id,name\n1,Name1\n2,\n"));
+        assertThat(writer.getRowCount(), is(2L));
+    }
+
+    /** 最初のMapのキーがヘッダとなること。 */
+    @Test
+    public void testWriteMap() {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, "\r\n");
+        Map<String, String> row = new LinkedHashMap<String, String>();
+        row.put("testID", "0");
+        row.put("testName", "Name0");
+        writer.writeRow(row);
+        row.remove("testName");
+        row.put("testID", "1");
+        row.put("extra", "ignored");
+        writer.writeRow(row);
+        writer.close();
+        assertThat(out.toString(), is("testID,testName\r\n0,Name0\r\n1,\r\n"));
+    }
+
+    /** 大量の行をファイルに出力できること。 */
+    @Test
+    public void testWriteFile() {
+        String path = "target/test-work/CsvWriterTest.csv";
+        new File(path).getParentFile().mkdirs();
+        CsvWriter writer = new CsvWriter(path, "UTF-8", "\n", 16);
+        writer.writeHeader("no", "value");
+        for (int i = 0; i < 10000; i++) {
+            writer.writeRow(String.valueOf(i), "値" + i);
+        }
+        writer.close();
+        String actual = SimpleReader.fileToString(path, "UTF-8");
+        assertThat(actual.split("\n").length, is(10001));
+        assertThat(actual.endsWith("9999,値9999\n"), is(true));
+    }
+
+    /** RFC 4180に従って値が引用符で囲まれること。 */
+    @Test
+    public void testQuoteMinimal() {
+        assertThat(write(CsvQuoteMode.MINIMAL, "plain", "a,b", "say \"hi\"", "line1\r\nline2", "\"", ""),
+                   is("plain,\"a,b\",\"say \"\"hi\"\"\",\"line1\r\nline2\",\"\"\"\",\n"));
+    }
+
+    /** 全ての値が引用符で囲まれること。 */
+    @Test
+    public void testQuoteAll() {
+        assertThat(write(CsvQuoteMode.ALL, "plain", "a\"b", "", null),
+                   is("\"plain\",\"a\"\"b\",\"\",\n"));
+    }
+
+    /** 値がそのまま出力されること。 */
+    @Test
+    public void testQuoteNone() {
+        assertThat(write(CsvQuoteMode.NONE, "a,b", "\"q\"", null),
+                   is("a,b,\"q\",\n"));
+    }
+
+    /** nullの出力内容を変更できること。 */
+    @Test
+    public void testNullValue() {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, "\n").setNullValue("NULL");
+        writer.writeHeader("a", "b").writeRow(null, "x");
+        assertThat(out.toString(), is("a,b\nNULL,x\n"));
+
+        writer.setNullValue(null);
+        try {
+            writer.writeRow("y", null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("value must not be null. row=[2] column=[b]"));
+        }
+    }
+
+    private static String write(CsvQuoteMode mode, String... values) {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, "\n").setQuoteMode(mode);
+        String[] header = new String[values.length];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = "c" + i;
+        }
+        writer.writeHeader(header).writeRow(values).close();
+        String written = out.toString();
+        return written.substring(written.indexOf('\n') + 1);
+    }
+
+    /** 値の数がヘッダと一致しない場合、例外が発生すること。 */
+    @Test
+    public void testInvalidRow() {
+        CsvWriter writer = new CsvWriter(new StringWriter(), "\n");
+        try {
+            writer.writeRow("1");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("header must be written before rows."));
+        }
+        writer.writeHeader("a", "b");
+        try {
+            writer.writeRow("1");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("number of values must be 2."));
+        }
+        try {
+            writer.writeHeader("c");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("header has already been written."));
+        }
+    }
+
+    /** 書き込みに失敗した場合、例外が発生すること。 */
+    @Test
+    public void testIOException() {
+        Writer broken = new Writer() {
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            public void flush() {
+            }
+
+            public void close() {
+            }
+
+            public String toString() {
+                return "broken";
+            }
+        };
+        try {
+            new CsvWriter(broken, "\n").writeHeader("a");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("IOException occurred. file=[broken]"));
+        }
+    }
+}
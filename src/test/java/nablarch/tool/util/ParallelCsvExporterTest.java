@@ -0,0 +1,143 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * {@link ParallelCsvExporter}のテストクラス。
+ */
+public class ParallelCsvExporterTest {
+
+    /** 出力先のディレクトリ */
+    private static final File DIR = new File("target/test-work/ParallelCsvExporterTest");
+
+    /** チャンクサイズ・並列度によらず、{@link CsvUtil#writeFile}と同じファイルが出力されること。 */
+    @Test
+    public void testSameAsCsvUtil() throws IOException {
+        List<Map<String, String>> data = createData(1003);
+        for (String charset : new String[] {"UTF-8", "Windows-31J"}) {
+            File expected = file("expected-" + charset + ".csv");
+            CsvUtil.writeFile(data, expected.getPath(), charset, "\r\n");
+            for (int chunkSize : new int[] {1, 7, 1000, 1003, 5000}) {
+                File actual = file("actual-" + charset + "-" + chunkSize + ".csv");
+                new ParallelCsvExporter().setChunkSize(chunkSize)
+                                         .setParallelism(3)
+                                         .export(data, actual.getPath(), charset, "\r\n");
+                assertArrayEquals(charset + " chunkSize=" + chunkSize,
+                                  Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+            }
+        }
+    }
+
+    /** 指定したExecutorと引用符の条件が使用されること。 */
+    @Test
+    public void testExecutorAndQuoteMode() throws IOException {
+        List<Map<String, String>> data = createData(50);
+        File expected = file("expected-all.csv");
+        CsvUtil.writeFile(data, expected.getPath(), "UTF-8", "\n", CsvQuoteMode.ALL);
+        File actual = file("actual-all.csv");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new ParallelCsvExporter().setChunkSize(3)
+                                     .setExecutor(executor)
+                                     .setQuoteMode(CsvQuoteMode.ALL)
+                                     .export(data, actual.getPath(), "UTF-8", "\n");
+        } finally {
+            executor.shutdown();
+        }
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    /** バイト順マークを出力する文字コードでも、{@link CsvUtil#writeFile}と同じファイルが出力されること。 */
+    @Test
+    public void testByteOrderMark() throws IOException {
+        List<Map<String, String>> data = createData(20);
+        File expected = file("expected-utf16.csv");
+        CsvUtil.writeFile(data, expected.getPath(), "UTF-16", "\n");
+        File actual = file("actual-utf16.csv");
+        new ParallelCsvExporter().setChunkSize(3).export(data, actual.getPath(), "UTF-16", "\n");
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    /** 空のリストを渡した場合、空のファイルが出力されること。 */
+    @Test
+    public void testEmpty() {
+        File actual = file("empty.csv");
+        new ParallelCsvExporter().export(new ArrayList<Map<String, String>>(), actual.getPath(), "UTF-8", "\n");
+        assertThat(actual.length(), is(0L));
+    }
+
+    /** 変換に失敗した場合、原因となった例外が送出されること。 */
+    @Test
+    public void testConversionFailure() {
+        List<Map<String, String>> data = createData(100);
+        data.set(42, new LinkedHashMap<String, String>() {
+            @Override
+            public String get(Object key) {
+                throw new IllegalStateException("broken row");
+            }
+        });
+        File actual = file("failure.csv");
+        try {
+            new ParallelCsvExporter().setChunkSize(10).export(data, actual.getPath(), "UTF-8", "\n");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to convert rows to CSV. file=[" + actual.getPath() + "]"));
+            assertThat(e.getCause().getMessage(), is("broken row"));
+        }
+    }
+
+    /** 存在しないディレクトリ・文字コードを指定した場合、例外が発生すること。 */
+    @Test
+    public void testInvalidArguments() {
+        try {
+            new ParallelCsvExporter().export(createData(1), "work/notExists/out.csv", "UTF-8", "\n");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("FileNotFoundException occurred. FilePath=[work/notExists/out.csv]"));
+        }
+        try {
+            new ParallelCsvExporter().export(createData(1), file("encoding.csv").getPath(), "test-encoding", "\n");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("this encoding is not supported. encoding=[test-encoding]"));
+        }
+        try {
+            new ParallelCsvExporter().setChunkSize(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("chunkSize must be positive. chunkSize=[0]"));
+        }
+    }
+
+    private static List<Map<String, String>> createData(int rows) {
+        List<Map<String, String>> data = new ArrayList<Map<String, String>>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, String> row = new LinkedHashMap<String, String>();
+            row.put("no", String.valueOf(i));
+            row.put("name", "名前" + i + (i % 5 == 0 ? ", \"引用\"\r\n改行" : ""));
+            if (i % 4 != 0) {
+                row.put("note", "備考" + i);
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    private static File file(String name) {
+        DIR.mkdirs();
+        return new File(DIR, name);
+    }
+}
@@ -4,6 +4,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -58,4 +63,73 @@ public class SimpleReaderTest {
         
         SimpleReader.fileToString("src/test/resources/nablarch/tool/util/SimpeReaderTestNomalData.txt", "test-encoding");
     }
+
+    /**
+     * ファイルの内容を{@link CharSequence}として読み込めることを確認する。
+     */
+    @Test
+    public void testFileToCharSequence() {
+        File file = new File("src/test/resources/nablarch/tool/util/SimpeReaderTestNomalData.txt");
+        CharSequence actual = SimpleReader.fileToCharSequence(file, "UTF-8");
+
+        assertThat(actual.toString(), is(SimpleReader.fileToString(file, "UTF-8")));
+        assertThat(actual.length(), is(47));
+        assertThat(actual.subSequence(20, 25).toString(), is("あいうえお"));
+        assertThat(((CharBuffer) actual).isReadOnly(), is(true));
+        // マルチバイト文字により見積もりより文字数が少ないため、配列が切り詰められること
+        assertThat(((CharBuffer) actual).capacity(), is(47));
+    }
+
+    /**
+     * 空のファイルを読み込めることを確認する。
+     */
+    @Test
+    public void testFileToCharSequenceEmpty() throws Exception {
+        File file = new File("target/test-work/SimpleReaderTest/empty.txt");
+        file.getParentFile().mkdirs();
+        new FileOutputStream(file).close();
+
+        assertThat(SimpleReader.fileToCharSequence(file, "UTF-8").length(), is(0));
+    }
+
+    /**
+     * ファイルの内容を1行ずつ読み込めることを確認する。
+     */
+    @Test
+    public void testReadLines() {
+        final List<String> lines = new ArrayList<String>();
+        SimpleReader.readLines(new File("src/test/resources/nablarch/tool/util/SimpeReaderTestNomalData.txt"), "UTF-8",
+                               new SimpleReader.LineHandler() {
+                                   public void handle(String line) {
+                                       lines.add(line);
+                                   }
+                               });
+
+        assertThat(lines, is(Arrays.asList("123456789", "abcdefg", "あいうえお", "カキクケコ", "一二三四五六七八九", "")));
+    }
+
+    /**
+     * メモリマップで読み込む際に、ファイルが存在しない場合に発生する例外とエラーメッセージを確認する。
+     */
+    @Test
+    public void testFileToCharSequenceFileNotFound() {
+        File file = new File("testFileNotFound.txt");
+
+        thrown.expect(RuntimeException.class);
+        thrown.expectMessage("File is not found. file=[" + file.getAbsolutePath() + "]");
+
+        SimpleReader.fileToCharSequence(file, "UTF-8");
+    }
+
+    /**
+     * 1行ずつ読み込む際に、指定したエンコードが存在しない場合に発生する例外とエラーメッセージを確認する。
+     */
+    @Test
+    public void testReadLinesUnsupportedEncoding() {
+        thrown.expect(RuntimeException.class);
+        thrown.expectMessage("this encoding is not supported. encoding=[test-encoding]");
+
+        SimpleReader.readLines(new File("src/test/resources/nablarch/tool/util/SimpeReaderTestNomalData.txt"),
+                               "test-encoding", null);
+    }
 }
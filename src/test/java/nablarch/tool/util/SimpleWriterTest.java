@@ -0,0 +1,89 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link SimpleWriter}のテストクラス。
+ */
+public class SimpleWriterTest {
+
+    /** 文字コード */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** 出力先のディレクトリ */
+    private final File dir = new File("target/test-work/SimpleWriterTest");
+
+    @Before
+    public void setUp() {
+        if (dir.exists()) {
+            for (File file : dir.listFiles()) {
+                file.setWritable(true);
+            }
+            ToolFileUtil.deleteDir(dir);
+        }
+    }
+
+    /** 内容が同一の場合は書き込みが省略され、異なる場合のみ書き込まれること。 */
+    @Test
+    public void testWriteIfChanged() {
+        File file = new File(dir, "sub/Generated.java");
+
+        assertThat(SimpleWriter.writeIfChanged(file, "class A {}\n", UTF8), is(true));
+        assertThat(SimpleReader.fileToString(file, "UTF-8"), is("class A {}\n"));
+
+        assertThat(file.setLastModified(1000000000L), is(true));
+        assertThat(SimpleWriter.writeIfChanged(file, "class A {}\n", UTF8), is(false));
+        assertThat(file.lastModified(), is(1000000000L));
+
+        assertThat(SimpleWriter.writeIfChanged(file, "class B {}\n", UTF8), is(true));
+        assertThat(SimpleReader.fileToString(file, "UTF-8"), is("class B {}\n"));
+        assertThat(SimpleWriter.writeIfChanged(file, "クラス", UTF8), is(true));
+        assertThat(SimpleReader.fileToString(file, "UTF-8"), is("クラス"));
+
+        // 一時ファイルが残らないこと。
+        assertThat(file.getParentFile().list().length, is(1));
+    }
+
+    /** 読み取り専用のファイルも置き換えられ、出力後は読み取り専用となること。 */
+    @Test
+    public void testWriteAndSealIfChanged() {
+        File file = new File(dir, "Sealed.txt");
+
+        assertThat(SimpleWriter.writeAndSealIfChanged(file, "v1", UTF8), is(true));
+        assertThat(isWritable(file), is(false));
+
+        assertThat(SimpleWriter.writeAndSealIfChanged(file, "v1", UTF8), is(false));
+        assertThat(isWritable(file), is(false));
+
+        assertThat(SimpleWriter.writeAndSealIfChanged(file, "v2", UTF8), is(true));
+        assertThat(SimpleReader.fileToString(file, "UTF-8"), is("v2"));
+        assertThat(isWritable(file), is(false));
+    }
+
+    /**
+     * ファイルに書き込み許可が付与されているか判定する。
+     * 特権ユーザで実行した場合でも判定できるよう、POSIXのパーミッションを参照する。
+     */
+    private static boolean isWritable(File file) {
+        PosixFileAttributeView view = Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class);
+        if (view == null) {
+            return file.canWrite();
+        }
+        try {
+            return view.readAttributes().permissions().contains(PosixFilePermission.OWNER_WRITE);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package nablarch.tool.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+/**
+ * {@link SourceBuilder}のテストクラス。
+ */
+public class SourceBuilderTest {
+
+    /** インデントを含むソースコードを組み立てられること。 */
+    @Test
+    public void testToString() {
+        assertThat(build(new SourceBuilder("\n")).toString(), is(expected()));
+    }
+
+    /** 出力先を指定した場合、確定した行が出力先へ書き込まれること。 */
+    @Test
+    public void testAppendable() {
+        StringWriter out = new StringWriter();
+        SourceBuilder builder = build(new SourceBuilder(out, "\n"));
+        assertThat(out.toString(), is(expected()));
+        assertThat(builder.toString(), is(expected()));
+
+        // 確定していない行は書き込まれない。
+        builder.print("pending");
+        assertThat(out.toString(), is(expected()));
+    }
+
+    /** 内容を保持しない出力先を指定した場合、文字列表現は出力先のものとなり、内容は取得できないこと。 */
+    @Test
+    public void testToStringWithStreamingOut() throws IOException {
+        Writer out = new BufferedWriter(new StringWriter());
+        SourceBuilder builder = build(new SourceBuilder(out, "\n"));
+        assertThat(builder.toString(), is(out.toString()));
+        try {
+            builder.getContent();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("out=[java.io.BufferedWriter]"));
+        }
+        try {
+            new BulkFileWriter().add(new File("target/test-work/SourceBuilderTest/out.txt"), builder);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("source must not write to out directly."));
+        }
+    }
+
+    /** インデント幅を指定でき、深いインデントも正しく出力されること。 */
+    @Test
+    public void testDeepIndent() {
+        StringBuilder out = new StringBuilder();
+        SourceBuilder builder = new SourceBuilder(out, 4, "\r\n").resetIndent();
+        for (int i = 0; i < 20; i++) {
+            builder.println(i).indent();
+        }
+        builder.println("end");
+        String[] lines = out.toString().split("\r\n");
+        assertThat(lines.length, is(21));
+        assertThat(lines[3], is("            3"));
+        assertThat(lines[20].length(), is(80 + 3));
+    }
+
+    /** 出力先への書き込みに失敗した場合、例外が発生すること。 */
+    @Test
+    public void testIOException() {
+        Writer broken = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("broken");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            new SourceBuilder(broken, "\n").println("a");
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("broken"));
+        }
+    }
+
+    private static SourceBuilder build(SourceBuilder builder) {
+        return builder.println("class A {")
+                      .indent()
+                      .println("void a() {")
+                      .indent()
+                      .print("int i", " = ", 1).println(";")
+                      .printlnWithDeIndent("}")
+                      .println()
+                      .printlnWithDeIndent("}");
+    }
+
+    private static String expected() {
+        return "  class A {\n"
+                + "    void a() {\n"
+                + "      int i = 1;\n"
+                + "      }\n"
+                + "\n"
+                + "    }";
+    }
+}
@@ -8,6 +8,7 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Collections;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -190,6 +191,141 @@ public class PoiUtilTest {
         }
     }
 
+    /** 保存されている計算結果を読み込むよう指定した場合、数式を評価せずに値が読み出せること。*/
+    @Test
+    public void testCachedFormulaResult() {
+        HSSFWorkbook workbook = PoiUtil.getHssfWorkbook(excelFile);
+        HSSFRow row = workbook.getSheet("type").getRow(1);
+        assertThat(PoiUtil.doReadCell(row.getCell(3), true), is((Object) "moji"));
+        assertThat(PoiUtil.doReadCell(row.getCell(4), true), is((Object) 2.0));
+        assertThat(PoiUtil.doReadCell(row.getCell(5), true), is((Object) false));
+        assertThat(PoiUtil.toString(workbook.getSheet("sheet3").getRow(0).getCell(1), true), is("AAA"));
+        // CELL_TYPE_ERROR
+        try {
+            PoiUtil.doReadCell(row.getCell(6), true);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+
+        // 保存されている計算結果には、POIで更新したセルは反映されない。
+        HSSFSheet sheet = workbook.createSheet("testCachedFormulaResult");
+        HSSFRow created = sheet.createRow(0);
+        created.createCell(0).setCellValue(1);
+        created.createCell(1).setCellFormula("A1*2");
+        try {
+            assertThat(PoiUtil.getDouble(created.getCell(1), true), is(0.0));
+            assertThat(PoiUtil.getDouble(created.getCell(1)), is(2.0));
+        } finally {
+            workbook.removeSheetAt(workbook.getSheetIndex(sheet));
+        }
+    }
+
+    /** ブック更新後に評価結果のキャッシュを破棄すると、更新が数式に反映されること。 */
+    @Test
+    public void testClearFormulaResults() {
+        HSSFWorkbook workbook = PoiUtil.getHssfWorkbook("src/test/resources/nablarch/tool/util/poi/PoiUtilTest1.xls");
+        HSSFSheet sheet = workbook.createSheet("testClearFormulaResults");
+        HSSFRow row = sheet.createRow(0);
+        row.createCell(0).setCellValue(1);
+        row.createCell(1).setCellFormula("A1*2");
+        try {
+            assertThat(PoiUtil.toString(row.getCell(1)), is("2.0"));
+
+            row.getCell(0).setCellValue(5);
+            PoiUtil.clearFormulaResults(workbook);
+            assertThat(PoiUtil.toString(row.getCell(1)), is("10.0"));
+        } finally {
+            workbook.removeSheetAt(workbook.getSheetIndex(sheet));
+        }
+
+        // キャッシュ対象外のブックでも例外とならないこと。
+        PoiUtil.clearFormulaResults(new HSSFWorkbook());
+    }
+
+    /** セルの値を型付きで取得できること。 */
+    @Test
+    public void testTypedAccess() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        HSSFRow row = workbook.createSheet("typed").createRow(0);
+        row.createCell(0).setCellValue(100);
+        row.createCell(1).setCellValue(" 0000000001 ");
+        row.createCell(2).setCellValue(true);
+        row.createCell(3).setCellValue("FALSE");
+        row.createCell(4).setCellFormula("A1/8");
+        row.createCell(5).setCellValue(1.5);
+        row.createCell(6);
+
+        assertThat(PoiUtil.getDouble(row.getCell(0)), is(100.0));
+        assertThat(PoiUtil.getLong(row.getCell(0)), is(100L));
+        assertThat(PoiUtil.getDouble(row.getCell(1)), is(1.0));
+        assertThat(PoiUtil.getLong(row.getCell(1)), is(1L));
+        assertThat(PoiUtil.getBoolean(row.getCell(2)), is(true));
+        assertThat(PoiUtil.getBoolean(row.getCell(3)), is(false));
+        assertThat(PoiUtil.getDouble(row.getCell(4)), is(12.5));
+
+        // 小数部を持つ値は整数として読めない。
+        try {
+            PoiUtil.getLong(row.getCell(5));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("columnNumber = [6]"));
+            assertThat(e.getCause(), is(instanceOf(IllegalArgumentException.class)));
+        }
+        // 真偽値として解釈できない。
+        try {
+            PoiUtil.getBoolean(row.getCell(0));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("columnNumber = [1]"));
+        }
+        // 空白セル
+        try {
+            PoiUtil.getDouble(row.getCell(6));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("columnNumber = [7]"));
+        }
+        // セルが存在しない。
+        try {
+            PoiUtil.getDouble(row.getCell(7));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cell must not be null."));
+        }
+
+        // カラム名を指定した取得（行が存在しない場合は、セルが存在しない場合と同じ）
+        XlsColumnDefs defs = new XlsColumnDefs();
+        defs.setIndexNamePairs(Collections.singletonMap("0", "num"));
+        assertThat(defs.getLong(row, "num"), is(100L));
+        assertThat(defs.getString(null, "num"), is(""));
+        try {
+            defs.getDouble(null, "num");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cell must not be null."));
+        }
+    }
+
+    /** セルの文字列表現がバッファに追加されること。 */
+    @Test
+    public void testAppendTo() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        HSSFRow row = workbook.createSheet("append").createRow(0);
+        row.createCell(0).setCellValue(100);
+        row.createCell(1).setCellValue("moji");
+        row.createCell(2).setCellValue(true);
+        row.createCell(3).setCellFormula("A1*2");
+        row.createCell(4);
+
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i <= 5; i++) {
+            PoiUtil.appendTo(row.getCell(i), buf).append(',');
+            assertThat(PoiUtil.hasValue(row.getCell(i)), is(PoiUtil.toString(row.getCell(i)).length() > 0));
+        }
+        assertThat(buf.toString(), is("100.0,moji,true,200.0,,,"));
+    }
+
     /** 指定したファイルのファイルシステム上のパスを取得できること。 */
     @Test
     public void testGetBookPath() {
@@ -0,0 +1,161 @@
+package nablarch.tool.util.poi;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link RowFinder}のテスト。
+ */
+public class RowFinderTest {
+
+    /** ビューを受け取る検索条件の場合、検索条件が参照したセルのみが読み込まれること。 */
+    @Test
+    public void testReadOnlyReferencedCells() {
+        CountingSource sheet = new CountingSource(createSheet());
+        RowFinder finder = new RowFinder(sheet, 1, createDefs());
+
+        Map<String, String> found = finder.findNext(new RowFinder.ViewCondition() {
+            public boolean matches(Map<String, String> row) {
+                return "id3".equals(row.get("id"));
+            }
+        }, RowFinder.Condition.NEVER_MATCH);
+
+        // 読み飛ばした行は、idカラムのみ読み込まれる。
+        assertThat(sheet.count, is(2 + 3));
+        assertThat(found, is(instanceOf(LinkedHashMap.class)));
+        assertThat(found.keySet(), contains("id", "name", "amount"));
+        assertThat(found.get("name"), is("name3"));
+        assertThat(finder.getRowIndex(), is(4));
+    }
+
+    /** ビューを受け取らない検索条件には、行ごとに作成された行データが渡されること。 */
+    @Test
+    public void testConditionRetainsRows() {
+        CountingSource sheet = new CountingSource(createSheet());
+        final List<Map<String, String>> retained = new ArrayList<Map<String, String>>();
+        List<Map<String, String>> found = new RowFinder(sheet, 1, createDefs()).findAll(new RowFinder.Condition() {
+            public boolean matches(Map<String, String> row) {
+                retained.add(row);
+                return "id2".equals(row.get("id"));
+            }
+        });
+
+        // 条件が参照しないカラムも含めて、全行の全カラムが読み込まれる。
+        assertThat(sheet.count, is(4 * 3));
+        assertThat(retained.size(), is(4));
+        assertThat(retained.get(0).get("name"), is("name1"));
+        assertThat(retained.get(3).get("name"), is("name4"));
+        assertThat(found.size(), is(1));
+        assertThat(found.get(0), is(sameInstance(retained.get(1))));
+    }
+
+    /** 行のビューが、全カラムを収集した結果と等価であること。 */
+    @Test
+    public void testView() {
+        HSSFSheet sheet = createSheet();
+        XlsColumnDefs defs = createDefs();
+        for (int i = 1; i <= 4; i++) {
+            HSSFRow row = sheet.getRow(i);
+            Map<String, String> view = defs.view(row);
+            LinkedHashMap<String, String> collected = defs.collect(row);
+            assertThat(view, is((Map<String, String>) collected));
+            assertThat(view.hashCode(), is(collected.hashCode()));
+            assertThat(view.keySet(), contains(collected.keySet().toArray()));
+            assertThat(view.get("unknown"), is(nullValue()));
+        }
+        try {
+            defs.view(sheet.getRow(1)).put("id", "x");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+    }
+
+    /** 空行で検索が終了すること。 */
+    @Test
+    public void testFindAll() {
+        HSSFSheet sheet = createSheet();
+        sheet.createRow(6).createCell(0).setCellValue("id6");
+        List<Map<String, String>> all = new RowFinder(sheet, 1, createDefs()).findAll();
+        assertThat(all.size(), is(4));
+        assertThat(all.get(3).get("amount"), is("40.0"));
+    }
+
+    /** 索引は行番号のみを保持し、行データは取得時点のシートから読み込むこと。 */
+    @Test
+    public void testIndexReadsRowOnFind() {
+        HSSFSheet sheet = createSheet();
+        sheet.createRow(5).createCell(0).setCellValue("id2");
+        sheet.getRow(5).createCell(1).setCellValue("name5");
+        RowIndex index = new RowFinder(sheet, 1, createDefs()).getIndex("id");
+        assertThat(index.findAll("id2").size(), is(2));
+        assertThat(index.findAll("id2").get(1).get("name"), is("name5"));
+
+        sheet.getRow(2).getCell(1).setCellValue("updated");
+        assertThat(index.find("id2").get("name"), is("updated"));
+        assertThat(index.find("id2"), is(not(sameInstance(index.find("id2")))));
+    }
+
+    private static HSSFSheet createSheet() {
+        HSSFSheet sheet = new HSSFWorkbook().createSheet("data");
+        sheet.createRow(0).createCell(0).setCellValue("header");
+        for (int i = 1; i <= 4; i++) {
+            HSSFRow row = sheet.createRow(i);
+            row.createCell(0).setCellValue("id" + i);
+            row.createCell(1).setCellValue("name" + i);
+            row.createCell(2).setCellValue(i * 10);
+        }
+        return sheet;
+    }
+
+    private static XlsColumnDefs createDefs() {
+        Map<String, String> pairs = new HashMap<String, String>();
+        pairs.put("0", "id");
+        pairs.put("1", "name");
+        pairs.put("2", "amount");
+        XlsColumnDefs defs = new XlsColumnDefs();
+        defs.setIndexNamePairs(pairs);
+        return defs;
+    }
+
+    /** 読み込んだセル数を数える{@link CellSource}。 */
+    private static class CountingSource implements CellSource {
+
+        private final HssfCellSource delegate;
+
+        private int count = 0;
+
+        CountingSource(HSSFSheet sheet) {
+            this.delegate = new HssfCellSource(sheet);
+        }
+
+        public int getLastRowNum() {
+            return delegate.getLastRowNum();
+        }
+
+        public String toString(int rowIndex, int cellIndex) {
+            count++;
+            return delegate.toString(rowIndex, cellIndex);
+        }
+
+        public CellSource copy() {
+            return this;
+        }
+
+        public ConcurrentMap<String, RowIndex> getRowIndexCache() {
+            return null;
+        }
+    }
+}
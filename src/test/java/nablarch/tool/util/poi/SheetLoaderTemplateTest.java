@@ -0,0 +1,243 @@
+package nablarch.tool.util.poi;
+
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link SheetLoaderTemplate}のテスト。
+ */
+public class SheetLoaderTemplateTest {
+
+    /** テスト用のローダ */
+    private static class Loader extends SheetLoaderTemplate {
+    }
+
+    /** .xls形式のブックから行を検索できること。 */
+    @Test
+    public void testXls() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createInformationProperties();
+        Loader target = createLoader(createBook(book, "testXls.xls"));
+        assertThat(target.getSheetNames(), contains("first", "data"));
+        assertFound(target);
+        assertIndex(target);
+        assertNotNull(target.getTargetSheet());
+    }
+
+    /** .xls形式のブックでは、サブクラスが返却するシートを検索対象とすること。 */
+    @Test
+    public void testOverrideTargetSheet() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createInformationProperties();
+        File file = createBook(book, "testOverrideTargetSheet.xls");
+        Loader target = new Loader() {
+            @Override
+            protected HSSFSheet getTargetSheet() {
+                return getSheet("first");
+            }
+        };
+        target.setPathToBook(file.getPath());
+        target.setSheetName("data");
+        target.setStartRowIndex(0);
+        target.setColumnDefs(createLoader(file).getColumnDefs());
+        List<Map<String, String>> all = target.getRowFinder().findAll();
+        assertThat(all.size(), is(1));
+        assertThat(all.get(0).get("id"), is("dummy"));
+    }
+
+    /** .xlsx形式のブックから行を検索できること。 */
+    @Test
+    public void testXlsx() {
+        Loader target = createLoader(createBook(new XSSFWorkbook(), "testXlsx.xlsx"));
+        assertThat(target.getSheetNames(), contains("first", "data"));
+        assertFound(target);
+        assertIndex(target);
+        try {
+            target.getTargetSheet();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("HSSFSheet is not available for .xlsx book."));
+        }
+    }
+
+    /** .xlsx形式のブックで、存在しないシートを指定した場合、例外が発生すること。 */
+    @Test
+    public void testXlsxSheetNotFound() {
+        Loader target = createLoader(createBook(new XSSFWorkbook(), "testXlsxSheetNotFound.xlsx"));
+        try {
+            target.getRowFinder("notExists");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("could not find sheet [notExists] in the book."));
+        }
+    }
+
+    /** 複数のシートを並行して読み込めること。 */
+    @Test
+    public void testLoadSheets() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createInformationProperties();
+        assertLoadSheets(createLoader(createBook(book, "testLoadSheets.xls")));
+        assertLoadSheets(createLoader(createBook(new XSSFWorkbook(), "testLoadSheets.xlsx")));
+    }
+
+    /** シートの読み込みに失敗した場合、シート名を含む例外が発生すること。 */
+    @Test
+    public void testLoadSheetsFailure() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createInformationProperties();
+        Loader target = createLoader(createBook(book, "testLoadSheetsFailure.xls"));
+        try {
+            target.loadSheets(Arrays.asList("data", "notExists"), new SheetLoaderTemplate.SheetHandler<Integer>() {
+                public Integer load(String sheetName, RowFinder finder) {
+                    return finder.findAll().size();
+                }
+            });
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("failed to load sheet. sheetName=[notExists]"));
+            assertThat(e.getCause().getMessage(), is("could not find sheet [notExists] in the book."));
+        }
+    }
+
+    private static void assertLoadSheets(Loader target) {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            target.setExecutor(executor);
+            Map<String, List<Map<String, String>>> loaded = target.loadSheets(
+                    new SheetLoaderTemplate.SheetHandler<List<Map<String, String>>>() {
+                        public List<Map<String, String>> load(String sheetName, RowFinder finder) {
+                            return finder.findAll();
+                        }
+                    });
+            assertThat(loaded.keySet(), contains("first", "data"));
+            assertThat(loaded.get("first").isEmpty(), is(true));
+            assertThat(loaded.get("data").size(), is(3));
+            assertThat(loaded.get("data").get(1).get("name"), is("name2"));
+
+            // デフォルトのExecutorで、指定したシートのみ読み込む。
+            target.setExecutor(null);
+            Map<String, Integer> counts = target.loadSheets(Arrays.asList("data"),
+                    new SheetLoaderTemplate.SheetHandler<Integer>() {
+                        public Integer load(String sheetName, RowFinder finder) {
+                            return finder.findAll().size();
+                        }
+                    });
+            assertThat(counts.size(), is(1));
+            assertThat(counts.get("data"), is(3));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertFound(Loader target) {
+        RowFinder finder = target.getRowFinder();
+        Map<String, String> found = finder.findNext(new RowFinder.Condition() {
+            public boolean matches(Map<String, String> row) {
+                return "id2".equals(row.get("id"));
+            }
+        });
+        assertThat(found.get("name"), is("name2"));
+        assertThat(found.get("amount"), is("20.0"));
+        assertThat(found.get("far"), is("AB2"));
+
+        List<Map<String, String>> all = target.getRowFinder("data").findAll();
+        assertThat(all.size(), is(3));
+        assertThat(all.get(0).keySet(), contains("id", "name", "amount", "far"));
+        assertThat(all.get(2).get("id"), is("id3"));
+    }
+
+    private static void assertIndex(Loader target) {
+        RowFinder finder = target.getRowFinder();
+        RowIndex index = finder.getIndex("id");
+        assertThat(index.find("id2").get("name"), is("name2"));
+        assertThat(index.find("id3").get("far"), is("AB3"));
+        assertThat(index.find("id4"), is(nullValue()));
+        assertThat(index.findAll("id1").size(), is(1));
+        assertThat(index.findAll("id4").isEmpty(), is(true));
+        // 検索位置は変更されない。
+        assertThat(finder.getRowIndex(), is(1));
+
+        // 複数カラムの索引
+        RowIndex multi = finder.getIndex("name", "amount");
+        assertThat(multi.find("name1", "10.0").get("id"), is("id1"));
+        assertThat(multi.find("name1", "20.0"), is(nullValue()));
+        try {
+            multi.find("name1");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("number of keys must be 2."));
+        }
+
+        // 索引はブックと共にキャッシュされる。
+        assertThat(target.getRowFinder().getIndex("id"), is(sameInstance(index)));
+
+        try {
+            finder.getIndex("unknown");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("column not defined. columnName=[unknown]"));
+        }
+    }
+
+    private static Loader createLoader(File book) {
+        Map<String, String> pairs = new HashMap<String, String>();
+        pairs.put("0", "id");
+        pairs.put("1", "name");
+        pairs.put("2", "amount");
+        pairs.put("27", "far");
+        XlsColumnDefs defs = new XlsColumnDefs();
+        defs.setIndexNamePairs(pairs);
+
+        Loader loader = new Loader();
+        loader.setPathToBook(book.getPath());
+        loader.setSheetName("data");
+        loader.setStartRowIndex(1);
+        loader.setColumnDefs(defs);
+        return loader;
+    }
+
+    private static File createBook(Workbook book, String name) {
+        book.createSheet("first").createRow(0).createCell(0).setCellValue("dummy");
+        Sheet sheet = book.createSheet("data");
+        sheet.createRow(0).createCell(0).setCellValue("header");
+        for (int i = 1; i <= 3; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("id" + i);
+            row.createCell(1).setCellValue("name" + i);
+            row.createCell(2).setCellValue(i * 10);
+            row.createCell(27).setCellValue("AB" + i);
+        }
+        File file = new File("target/test-work/SheetLoaderTemplateTest", name);
+        file.getParentFile().mkdirs();
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                book.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return file;
+    }
+}
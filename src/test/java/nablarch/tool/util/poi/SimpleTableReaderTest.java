@@ -0,0 +1,129 @@
+package nablarch.tool.util.poi;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link SimpleTableReader}のテスト。
+ */
+public class SimpleTableReaderTest {
+
+    /** 行をMapに変換せず、型付きで読み込めること。 */
+    @Test
+    public void testReadWithMapper() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        HSSFSheet sheet = book.createSheet("data");
+        HSSFRow header = sheet.createRow(1);
+        header.createCell(1).setCellValue("id");
+        header.createCell(2).setCellValue("price");
+        header.createCell(3).setCellValue("active");
+        for (int i = 2; i <= 4; i++) {
+            HSSFRow row = sheet.createRow(i);
+            row.createCell(1).setCellValue(String.format("%010d", i));
+            row.createCell(2).setCellValue(i * 1.5);
+            row.createCell(3).setCellValue(i % 2 == 0);
+        }
+        sheet.createRow(5).createCell(1);
+        sheet.createRow(6).createCell(1).setCellValue("ignored");
+
+        SimpleTableReader reader = new SimpleTableReader().setHeaderRowNum(1).setStartColumn(1);
+        List<String> actual = reader.read(sheet, new SimpleTableReader.RowMapper<String>() {
+            public String map(TypedRow row) {
+                assertThat(row.getColumnNames(), contains("id", "price", "active"));
+                return row.getRowNum() + ":" + row.getLong("id") + ":" + row.getDouble("price")
+                        + ":" + row.getBoolean("active") + ":" + row.getString("price");
+            }
+        });
+        assertThat(actual, contains("2:2:3.0:true:3.0", "3:3:4.5:false:4.5", "4:4:6.0:true:6.0"));
+
+        // Mapとして読み込んだ場合と同じ行数であること。
+        List<Map<String, String>> maps = reader.read(sheet);
+        assertThat(actual.size(), is(maps.size()));
+    }
+
+    /** 存在しないカラム名を指定した場合、例外が発生すること。 */
+    @Test
+    public void testUnknownColumn() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        HSSFSheet sheet = book.createSheet("data");
+        sheet.createRow(0).createCell(0).setCellValue("key");
+        sheet.createRow(1).createCell(0).setCellValue("1");
+        try {
+            new SimpleTableReader().read(sheet, new SimpleTableReader.RowMapper<String>() {
+                public String map(TypedRow row) {
+                    return row.getString("unknown");
+                }
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("columnName=[unknown]"));
+        }
+    }
+
+    /** .xlsx形式のブックから、.xls形式と同じ結果が得られること。 */
+    @Test
+    public void testReadXlsx() {
+        HSSFWorkbook hssf = new HSSFWorkbook();
+        hssf.createInformationProperties();
+        SimpleTableReader reader = new SimpleTableReader().setHeaderRowNum(1).setStartColumn(1);
+        List<Map<String, String>> xls = reader.read(createBook(hssf, "testReadXlsx.xls"), "data");
+        List<Map<String, String>> xlsx = reader.read(createBook(new XSSFWorkbook(), "testReadXlsx.xlsx"), "data");
+
+        assertThat(xlsx.size(), is(3));
+        assertThat(xlsx.get(0).keySet(), contains("id", "price", "active"));
+        assertThat(xlsx.get(0).get("id"), is("id2"));
+        assertThat(xlsx.get(0).get("price"), is("3.0"));
+        assertThat(xlsx.get(1).get("active"), is("false"));
+        assertThat(xlsx, is(xls));
+
+        try {
+            reader.read(new File("target/test-work/SimpleTableReaderTest/testReadXlsx.xlsx"), "notExists");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("could not find sheet [notExists] in the book."));
+        }
+    }
+
+    private static File createBook(Workbook book, String name) {
+        Sheet sheet = book.createSheet("data");
+        Row header = sheet.createRow(1);
+        header.createCell(1).setCellValue("id");
+        header.createCell(2).setCellValue("price");
+        header.createCell(3).setCellValue("active");
+        for (int i = 2; i <= 4; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(1).setCellValue("id" + i);
+            row.createCell(2).setCellValue(i * 1.5);
+            row.createCell(3).setCellValue(i % 2 == 0);
+        }
+        sheet.createRow(6).createCell(1).setCellValue("ignored");
+        File file = new File("target/test-work/SimpleTableReaderTest", name);
+        file.getParentFile().mkdirs();
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                book.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return file;
+    }
+}
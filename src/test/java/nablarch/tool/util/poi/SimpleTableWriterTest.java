@@ -68,4 +68,27 @@ public class SimpleTableWriterTest {
         }
 
     }
+
+    /** 書き込んだ値が、キャッシュされたブックの数式の評価結果に反映されること。 */
+    @Test
+    public void testWriteUpdatesFormulaResult() {
+        HSSFWorkbook workbook = PoiUtil.getHssfWorkbook(BOOK);
+        HSSFSheet sheet = workbook.createSheet("testWriteUpdatesFormulaResult");
+        sheet.createRow(0).createCell(0);
+        HSSFRow row = sheet.createRow(1);
+        row.createCell(0).setCellValue("1");
+        row.createCell(1).setCellFormula("A2&\"!\"");
+        try {
+            assertThat(PoiUtil.toString(row.getCell(1)), is("1!"));
+
+            Map<String, String> line = new LinkedHashMap<String, String>();
+            line.put("KEY", "5");
+            List<Map<String, String>> data = new ArrayList<Map<String, String>>();
+            data.add(line);
+            new SimpleTableWriter(sheet, 0).write(data);
+            assertThat(PoiUtil.toString(row.getCell(1)), is("5!"));
+        } finally {
+            workbook.removeSheetAt(workbook.getSheetIndex(sheet));
+        }
+    }
 }
@@ -0,0 +1,185 @@
+package nablarch.tool.util.poi;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link StreamingTableReader}のテスト。
+ */
+public class StreamingTableReaderTest {
+
+    private static final File BOOK = new File("src/test/resources/nablarch/tool/util/poi/EmptyAwareTableReaderTest.xls");
+
+    /** {@link SimpleTableReader}と同じ結果が得られること。 */
+    @Test
+    public void testSameAsSimpleTableReader() {
+        assertSameAsSimpleTableReader(BOOK, "PERMISSION_UNIT", 1);
+        assertSameAsSimpleTableReader(BOOK, "SYSTEM_ACCOUNT_AUTHORITY", 2);
+    }
+
+    /** 数式セルは保存されている計算結果が読み込まれること。 */
+    @Test
+    public void testFormula() {
+        List<Map<String, String>> actual = read(BOOK, "SYSTEM_ACCOUNT_AUTHORITY", 2);
+        assertThat(actual.get(0).get("USER_ID"), is("0000000001"));
+        assertThat(actual.get(0).get("KANJI_NAME"), is("名部良太郎"));
+        assertThat(actual.get(1).get("USER_ID"), is("0000000002"));
+    }
+
+    /** 数値・真偽値・空セルが{@link PoiUtil#toString}と同じ表現で読み込まれること。 */
+    @Test
+    public void testCellTypes() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        HSSFSheet sheet = book.createSheet("data");
+        HSSFRow header = sheet.createRow(0);
+        header.createCell(1).setCellValue("num");
+        header.createCell(2).setCellValue("bool");
+        header.createCell(3).setCellValue("str");
+        header.createCell(4).setCellValue("blank");
+        for (int i = 1; i <= 3; i++) {
+            HSSFRow row = sheet.createRow(i);
+            row.createCell(1).setCellValue(i * 1.5);
+            row.createCell(2).setCellValue(i % 2 == 0);
+            row.createCell(3).setCellValue("s" + i);
+            row.createCell(4);
+        }
+        // 空行以降は読み込まれない。
+        sheet.createRow(4).createCell(1).setCellValue("");
+        sheet.createRow(5).createCell(1).setCellValue("ignored");
+        File file = save(book, "testCellTypes.xls");
+
+        List<Map<String, String>> actual = new ArrayList<Map<String, String>>();
+        new StreamingTableReader().setStartColumn(1).read(file, "data", collector(actual));
+
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(0).keySet(), contains("num", "bool", "str", "blank"));
+        assertThat(actual.get(0).get("num"), is("1.5"));
+        assertThat(actual.get(0).get("bool"), is("false"));
+        assertThat(actual.get(0).get("str"), is("s1"));
+        assertThat(actual.get(0).get("blank"), is(""));
+        assertThat(actual.get(1).get("num"), is("3.0"));
+        assertThat(actual.get(1).get("bool"), is("true"));
+
+        assertThat(actual, is(new SimpleTableReader().setStartColumn(1).read(book.getSheet("data"))));
+    }
+
+    /** .xlsx形式のブックから、.xls形式と同じ結果が得られること。 */
+    @Test
+    public void testXlsx() {
+        XSSFWorkbook book = new XSSFWorkbook();
+        book.createSheet("first").createRow(0).createCell(0).setCellValue("dummy");
+        XSSFSheet sheet = book.createSheet("data");
+        XSSFRow header = sheet.createRow(1);
+        header.createCell(1).setCellValue("num");
+        header.createCell(2).setCellValue("bool");
+        header.createCell(3).setCellValue("str");
+        for (int i = 2; i <= 4; i++) {
+            XSSFRow row = sheet.createRow(i);
+            row.createCell(1).setCellValue(i * 1.5);
+            row.createCell(2).setCellValue(i % 2 == 0);
+            row.createCell(3).setCellValue("文字" + i);
+        }
+        sheet.createRow(6).createCell(1).setCellValue("ignored");
+        File file = new File("target/test-work/StreamingTableReaderTest/testXlsx.xlsx");
+        file.getParentFile().mkdirs();
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                book.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        List<Map<String, String>> actual = new ArrayList<Map<String, String>>();
+        new StreamingTableReader().setHeaderRowNum(1).setStartColumn(1).read(file, "DATA", collector(actual));
+
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(0).keySet(), contains("num", "bool", "str"));
+        assertThat(actual.get(0).get("num"), is("3.0"));
+        assertThat(actual.get(0).get("bool"), is("true"));
+        assertThat(actual.get(0).get("str"), is("文字2"));
+        assertThat(actual.get(2).get("num"), is("6.0"));
+        assertThat(actual.get(2).get("bool"), is("true"));
+        assertThat(actual.get(1).get("bool"), is("false"));
+    }
+
+    /** 行が存在しない位置で読み込みが終了すること。 */
+    @Test
+    public void testEndAtMissingRow() {
+        HSSFWorkbook book = new HSSFWorkbook();
+        book.createSheet("first");
+        HSSFSheet sheet = book.createSheet("data");
+        sheet.createRow(0).createCell(0).setCellValue("key");
+        sheet.createRow(1).createCell(0).setCellValue("1");
+        sheet.createRow(3).createCell(0).setCellValue("3");
+        File file = save(book, "testEndAtMissingRow.xls");
+
+        List<Map<String, String>> actual = new ArrayList<Map<String, String>>();
+        new StreamingTableReader().read(file, "data", collector(actual));
+        assertThat(actual.size(), is(1));
+        assertThat(actual.get(0).get("key"), is("1"));
+    }
+
+    /** 存在しないシートを指定した場合、例外が発生すること。 */
+    @Test
+    public void testSheetNotFound() {
+        try {
+            read(BOOK, "notExists", 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("could not find sheet [notExists] in the book."));
+        }
+    }
+
+    /** 開始カラムが終了カラムより大きい場合、例外が発生すること。 */
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidColumnRange() {
+        new StreamingTableReader().setStartColumn(3).setEndColumn(2)
+                                  .read(BOOK, "PERMISSION_UNIT", collector(new ArrayList<Map<String, String>>()));
+    }
+
+    private static void assertSameAsSimpleTableReader(File file, String sheetName, int headerRowNum) {
+        HSSFSheet sheet = PoiUtil.getHssfWorkbook(file).getSheet(sheetName);
+        List<Map<String, String>> expected = new SimpleTableReader().setHeaderRowNum(headerRowNum).read(sheet);
+        assertThat(read(file, sheetName, headerRowNum), is(expected));
+    }
+
+    private static List<Map<String, String>> read(File file, String sheetName, int headerRowNum) {
+        List<Map<String, String>> actual = new ArrayList<Map<String, String>>();
+        new StreamingTableReader().setHeaderRowNum(headerRowNum).read(file, sheetName, collector(actual));
+        return actual;
+    }
+
+    private static StreamingTableReader.RowHandler collector(final List<Map<String, String>> result) {
+        return new StreamingTableReader.RowHandler() {
+            public void handle(Map<String, String> row) {
+                result.add(row);
+            }
+        };
+    }
+
+    private static File save(HSSFWorkbook book, String name) {
+        File file = new File("target/test-work/StreamingTableReaderTest", name);
+        file.getParentFile().mkdirs();
+        PoiUtil.save(book, file.getPath());
+        return file;
+    }
+}
@@ -0,0 +1,232 @@
+package nablarch.tool.util.poi;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link WorkbookCache}のテスト。
+ */
+public class WorkbookCacheTest {
+
+    /** テストで使用するEXCELファイル */
+    private static final File BOOK = new File("src/test/resources/nablarch/tool/util/poi/PoiUtilTest.xls");
+
+    /** テストで使用するEXCELファイル */
+    private static final File ANOTHER_BOOK = new File("src/test/resources/nablarch/tool/util/poi/PoiUtilTest1.xls");
+
+    /** 読み込み回数を記録するキャッシュ */
+    private static class CountingCache extends WorkbookCache {
+
+        /** 読み込み回数 */
+        private final AtomicInteger loadCount = new AtomicInteger();
+
+        /** 読み込み開始を待ち合わせるラッチ */
+        private final CountDownLatch latch;
+
+        CountingCache(long capacity, CountDownLatch latch) {
+            super(capacity);
+            this.latch = latch;
+        }
+
+        @Override
+        HSSFWorkbook load(File file) {
+            loadCount.incrementAndGet();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.load(file);
+        }
+    }
+
+    /** キャッシュされたブックが返却されること。 */
+    @Test
+    public void testCacheHit() {
+        CountingCache target = new CountingCache(Long.MAX_VALUE, new CountDownLatch(0));
+        HSSFWorkbook first = target.get(BOOK);
+        HSSFWorkbook second = target.get(BOOK.getAbsoluteFile());
+        assertThat(second, is(sameInstance(first)));
+        assertThat(target.loadCount.get(), is(1));
+        assertThat(first.getSummaryInformation().getTitle(), is(BOOK.getAbsolutePath()));
+    }
+
+    /** 複数スレッドから同時に要求された場合も、読み込みが1度だけ行われること。 */
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        final CountingCache target = new CountingCache(Long.MAX_VALUE, latch);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HSSFWorkbook>> futures = new ArrayList<Future<HSSFWorkbook>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<HSSFWorkbook>() {
+                    public HSSFWorkbook call() {
+                        return target.get(BOOK);
+                    }
+                }));
+            }
+            latch.countDown();
+            HSSFWorkbook expected = futures.get(0).get();
+            for (Future<HSSFWorkbook> e : futures) {
+                assertThat(e.get(), is(sameInstance(expected)));
+            }
+            assertThat(target.loadCount.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** ファイルが更新された場合、読み込み直されること。 */
+    @Test
+    public void testReloadModifiedFile() throws Exception {
+        File work = new File("target/test-work/WorkbookCacheTest.xls");
+        work.getParentFile().mkdirs();
+        Files.copy(BOOK.toPath(), work.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(work.setLastModified(1000000000000L));
+
+        CountingCache target = new CountingCache(Long.MAX_VALUE, new CountDownLatch(0));
+        HSSFWorkbook book = target.get(work);
+        assertThat(PoiUtil.getSheetNamesOf(book), hasItem("sheet1"));
+        assertThat(target.get(work), is(sameInstance(book)));
+
+        // 最終更新日時のみ変更
+        assertTrue(work.setLastModified(1000000001000L));
+        HSSFWorkbook reloaded = target.get(work);
+        assertThat(reloaded, is(not(sameInstance(book))));
+        assertThat(target.loadCount.get(), is(2));
+
+        // 内容を変更（最終更新日時は同一）
+        Files.copy(ANOTHER_BOOK.toPath(), work.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(work.setLastModified(1000000001000L));
+        HSSFWorkbook another = target.get(work);
+        assertThat(another, is(not(sameInstance(reloaded))));
+        assertThat(target.loadCount.get(), is(3));
+        assertThat(target.size(), is(1));
+        assertThat(target.weight(), is(ANOTHER_BOOK.length() * WorkbookCache.HEAP_RATIO));
+    }
+
+    /** 推定サイズの合計が容量を超えた場合、最も長い間参照されていないブックが破棄されること。 */
+    @Test
+    public void testEvictByWeight() {
+        long capacity = (BOOK.length() + ANOTHER_BOOK.length()) * WorkbookCache.HEAP_RATIO - 1;
+        CountingCache target = new CountingCache(capacity, new CountDownLatch(0));
+
+        HSSFWorkbook book = target.get(BOOK);
+        assertThat(target.size(), is(1));
+        assertThat(target.weight(), is(BOOK.length() * WorkbookCache.HEAP_RATIO));
+
+        target.get(ANOTHER_BOOK);
+        assertThat("容量を超えたため、古いブックが破棄されること", target.size(), is(1));
+        assertThat(target.weight(), is(ANOTHER_BOOK.length() * WorkbookCache.HEAP_RATIO));
+
+        assertThat(target.get(BOOK), is(not(sameInstance(book))));
+        assertThat(target.loadCount.get(), is(3));
+    }
+
+    /** 直前に読み込んだブックは、単体で容量を超える場合でも破棄されないこと。 */
+    @Test
+    public void testLargerThanCapacity() {
+        CountingCache target = new CountingCache(1, new CountDownLatch(0));
+        HSSFWorkbook book = target.get(BOOK);
+        assertThat(target.size(), is(1));
+        assertThat(target.get(BOOK), is(sameInstance(book)));
+    }
+
+    /** 読み込みに失敗した場合、例外が送出され、キャッシュされないこと。 */
+    @Test
+    public void testLoadFailure() {
+        WorkbookCache target = new WorkbookCache(Long.MAX_VALUE);
+        File notExists = new File("src/test/resources/nablarch/tool/util/poi/notExists.xls");
+        try {
+            target.get(notExists);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(target.size(), is(0));
+            assertThat(target.weight(), is(0L));
+        }
+    }
+
+    /** キャッシュ済みのブックごとに、同一の数式評価器が返却されること。 */
+    @Test
+    public void testFormulaEvaluator() {
+        WorkbookCache target = new WorkbookCache(Long.MAX_VALUE);
+        HSSFWorkbook book = target.get(BOOK);
+        HSSFWorkbook another = target.get(ANOTHER_BOOK);
+
+        FormulaEvaluator evaluator = target.getFormulaEvaluator(book);
+        assertThat(evaluator, is(notNullValue()));
+        assertThat(target.getFormulaEvaluator(book), is(sameInstance(evaluator)));
+        assertThat(target.getFormulaEvaluator(another), is(not(sameInstance(evaluator))));
+
+        // キャッシュ対象外のブック
+        assertThat(target.getFormulaEvaluator(new HSSFWorkbook()), is(nullValue()));
+
+        // 破棄されたブック
+        target.clear();
+        assertThat(target.getFormulaEvaluator(book), is(nullValue()));
+    }
+
+    /** キャッシュを破棄できること。 */
+    @Test
+    public void testClear() {
+        WorkbookCache target = new WorkbookCache(Long.MAX_VALUE);
+        target.get(BOOK);
+        target.get(ANOTHER_BOOK);
+        assertThat(target.size(), is(2));
+        target.clear();
+        assertThat(target.size(), is(0));
+        assertThat(target.weight(), is(0L));
+    }
+
+    /** 読み込み中にキャッシュが破棄された場合、読み込んだブックがキャッシュに残らないこと。 */
+    @Test
+    public void testClearDuringLoad() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        final CountingCache target = new CountingCache(Long.MAX_VALUE, latch);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<HSSFWorkbook> future = executor.submit(new Callable<HSSFWorkbook>() {
+                public HSSFWorkbook call() {
+                    return target.get(BOOK);
+                }
+            });
+            while (target.loadCount.get() == 0) {
+                Thread.sleep(10);
+            }
+            // 読み込みスレッドがloadの中で待機している間に破棄する。
+            target.clear();
+            latch.countDown();
+
+            HSSFWorkbook book = future.get();
+            assertThat(book, is(notNullValue()));
+            assertThat(target.size(), is(0));
+            assertThat(target.weight(), is(0L));
+            assertThat(target.getFormulaEvaluator(book), is(nullValue()));
+
+            // 次の要求では読み込み直され、通常通りキャッシュされること。
+            HSSFWorkbook reloaded = target.get(BOOK);
+            assertThat(reloaded, is(not(sameInstance(book))));
+            assertThat(target.size(), is(1));
+            assertThat(target.weight(), is(target.estimateWeight(BOOK)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}